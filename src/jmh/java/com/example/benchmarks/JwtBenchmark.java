@@ -0,0 +1,73 @@
+package com.example.benchmarks;
+
+import com.example.security.CompactJwsVerifier;
+import com.example.security.JwtUtil;
+import com.example.security.VerifiedToken;
+import com.example.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.TextCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    static final List<String> PERMISSIONS = Arrays.asList(
+            "can_read_users", "can_search_vacuum", "can_start_vacuum", "can_stop_vacuum", "can_discharge_vacuum");
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private CompactJwsVerifier compactVerifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(new VerifiedTokenCache(10_000));
+        uncachedJwtUtil = new JwtUtil(new VerifiedTokenCache(0));
+        compactVerifier = new CompactJwsVerifier(TextCodec.BASE64.decode("secret"));
+        token = jwtUtil.generateToken(1L, 0, "user@example.com", PERMISSIONS);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(1L, 0, "user@example.com", PERMISSIONS);
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    /** Same verification as {@link #extractAllClaims()}; compare allocation with {@code -prof gc}. */
+    @Benchmark
+    public VerifiedToken compactVerify() {
+        return compactVerifier.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyUncached() {
+        return uncachedJwtUtil.verify(token);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.benchmarks;
+
+import com.example.models.entities.User;
+import com.example.models.enums.Permission;
+import com.example.repositories.TokenRevocationRepository;
+import com.example.repositories.UserRepository;
+import com.example.security.JwtFilter;
+import com.example.security.JwtUtil;
+import com.example.security.VerifiedTokenCache;
+import com.example.services.TokenRevocationService;
+import com.example.services.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link JwtFilter} pass for an authenticated request, with the user lookup served by a
+ * mocked repository so only the filter's own work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    @Param({"10000", "0"})
+    public int tokenCacheSize;
+
+    private JwtFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setVersion(0);
+        user.setEmail("user@example.com");
+        user.setPasswordHash("hash");
+        user.setPermissions(EnumSet.allOf(Permission.class));
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(Mockito.mock(TokenRevocationRepository.class), 10_000);
+        UserService userService = new UserService(userRepository, tokenRevocationService);
+        JwtUtil jwtUtil = new JwtUtil(new VerifiedTokenCache(tokenCacheSize));
+
+        filter = new JwtFilter(userService, jwtUtil, tokenRevocationService, stateless, new SimpleMeterRegistry());
+        authorization = "Bearer " + jwtUtil.generateToken(1L, 0, "user@example.com", JwtBenchmark.PERMISSIONS);
+    }
+
+    @Benchmark
+    public MockFilterChain doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/vacuums/search");
+        request.addHeader("Authorization", authorization);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        SecurityContextHolder.clearContext();
+        return chain;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.benchmarks;
+
+import com.example.models.entities.User;
+import com.example.models.enums.Permission;
+import com.example.repositories.TokenRevocationRepository;
+import com.example.repositories.UserRepository;
+import com.example.services.TokenRevocationService;
+import com.example.services.UserService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setVersion(0);
+        user.setEmail("user@example.com");
+        user.setPasswordHash("hash");
+        user.setPermissions(EnumSet.allOf(Permission.class));
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        userService = new UserService(userRepository,
+                new TokenRevocationService(Mockito.mock(TokenRevocationRepository.class), 10_000));
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userService.loadUserByUsername("user@example.com");
+    }
+}
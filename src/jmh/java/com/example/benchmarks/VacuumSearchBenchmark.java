@@ -0,0 +1,94 @@
+package com.example.benchmarks;
+
+import com.example.models.dto.PageCursor;
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import com.example.services.VacuumReadModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search over the in-memory vacuum read model that backs {@code GET /vacuums/search}. Vacuums are
+ * spread over {@link #OWNERS} users; the searching user owns an equal share of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class VacuumSearchBenchmark {
+
+    private static final int OWNERS = 10;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int vacuums;
+
+    private VacuumReadModel readModel;
+    private Set<Status> statuses;
+    private PageCursor middle;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup
+    public void setUp() {
+        readModel = new VacuumReadModel(vacuums);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Status[] values = Status.values();
+
+        for (int i = 1; i <= vacuums; i++) {
+            Vacuum vacuum = new Vacuum();
+            vacuum.setId((long) i);
+            vacuum.setName("vacuum-" + i);
+            vacuum.setStatus(values[i % values.length]);
+            vacuum.setAddedBy((long) (i % OWNERS));
+            vacuum.setActive(true);
+            vacuum.setVersion(0L);
+            vacuum.setCreatedAt(start.plusSeconds(i));
+            readModel.apply(vacuum);
+        }
+
+        statuses = EnumSet.of(values[0]);
+        middle = new PageCursor(start.plusSeconds(vacuums / 2), (long) vacuums / 2);
+        from = start.plusSeconds(vacuums / 4);
+        to = start.plusSeconds(vacuums * 3L / 4);
+    }
+
+    @Benchmark
+    public List<Vacuum> firstPage() {
+        return readModel.search(1L, null, Collections.emptySet(), null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Vacuum> pageAfterCursor() {
+        return readModel.search(1L, null, Collections.emptySet(), null, null, middle, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Vacuum> filteredByStatusAndDates() {
+        return readModel.search(1L, null, statuses, from, to, null, PAGE_SIZE);
+    }
+
+    /** Selective name filter: scans the whole owner range to fill at most one page. */
+    @Benchmark
+    public List<Vacuum> filteredByName() {
+        return readModel.search(1L, "-12345", null, null, null, null, PAGE_SIZE);
+    }
+}
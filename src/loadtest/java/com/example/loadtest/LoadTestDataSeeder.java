@@ -0,0 +1,89 @@
+package com.example.loadtest;
+
+import com.example.models.entities.User;
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Permission;
+import com.example.models.enums.Status;
+import com.example.repositories.UserRepository;
+import com.example.repositories.VacuumRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Seeds the embedded database of the {@code loadtest} profile with login users that hold every
+ * permission and a fixed number of vacuums each. Runs before the read model is built on
+ * {@link org.springframework.boot.context.event.ApplicationReadyEvent}. Lives with the harness on the
+ * {@code loadtest} source root, so it never ships in the application jar.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataSeeder.class);
+    private static final int SAVE_CHUNK = 1000;
+
+    private final UserRepository userRepository;
+    private final VacuumRepository vacuumRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final int users;
+    private final int vacuumsPerUser;
+    private final String password;
+
+    public LoadTestDataSeeder(UserRepository userRepository, VacuumRepository vacuumRepository, PasswordEncoder passwordEncoder,
+                              @Value("${loadtest.seed.users:10}") int users,
+                              @Value("${loadtest.seed.vacuums-per-user:1000}") int vacuumsPerUser,
+                              @Value("${loadtest.seed.password:loadtest}") String password) {
+        this.userRepository = userRepository;
+        this.vacuumRepository = vacuumRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.users = users;
+        this.vacuumsPerUser = vacuumsPerUser;
+        this.password = password;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String passwordHash = passwordEncoder.encode(password);
+        Status[] statuses = {Status.STOPPED, Status.RUNNING};
+
+        for (int u = 0; u < users; u++) {
+            String email = "loadtest" + u + "@example.com";
+            if (userRepository.findByEmail(email).isPresent()) continue;
+
+            User user = new User();
+            user.setFirstName("Load");
+            user.setLastName("Test " + u);
+            user.setEmail(email);
+            user.setPasswordHash(passwordHash);
+            user.setPermissions(EnumSet.allOf(Permission.class));
+            user = userRepository.save(user);
+
+            List<Vacuum> chunk = new ArrayList<>(SAVE_CHUNK);
+            for (int v = 0; v < vacuumsPerUser; v++) {
+                Vacuum vacuum = new Vacuum();
+                vacuum.setName("vacuum-" + u + "-" + v);
+                vacuum.setAddedBy(user.getId());
+                vacuum.setStatus(statuses[v % statuses.length]);
+                vacuum.setActive(true);
+                vacuum.setCycle(0);
+                chunk.add(vacuum);
+                if (chunk.size() == SAVE_CHUNK) {
+                    vacuumRepository.saveAll(chunk);
+                    chunk.clear();
+                }
+            }
+            vacuumRepository.saveAll(chunk);
+        }
+        log.info("Seeded {} load-test users with {} vacuums each", users, vacuumsPerUser);
+    }
+}
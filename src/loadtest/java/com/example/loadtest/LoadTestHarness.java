@@ -0,0 +1,296 @@
+package com.example.loadtest;
+
+import com.example.DemoApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator. Boots the application with the {@code loadtest} profile (or targets
+ * {@code --url}), logs in every seeded user through {@code /auth} and drives a weighted mix of
+ * search, status command, schedule and error-log requests from {@code --threads} workers. Reports
+ * throughput and p50/p99/p99.9 latency per endpoint after {@code --warmup-seconds} of warm-up, on
+ * stdout and as JSON in {@code --out}.
+ *
+ * <p>Run with {@code mvn -Ploadtest verify}; pass options through {@code -Dloadtest.args="--threads=32"}.
+ */
+public class LoadTestHarness {
+
+    private static final DateTimeFormatter SCHEDULE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy HH:mm");
+    private static final String[] ACTIONS = {"START", "STOP", "DISCHARGE"};
+    private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    enum Endpoint {
+        SEARCH("GET /vacuums/search", 50),
+        COMMAND("PUT /vacuums/{action}/{id}", 25),
+        ERRORS("GET /errors", 20),
+        SCHEDULE("POST /vacuums/schedule", 5);
+
+        final String label;
+        final int weight;
+        final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+        final LongAdder non2xx = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        Endpoint(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Session {
+        final String authorization;
+        final List<Long> vacuumIds;
+
+        Session(String authorization, List<Long> vacuumIds) {
+            this.authorization = authorization;
+            this.vacuumIds = vacuumIds;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final int threads;
+    private final int users;
+    private final String password;
+    private final long warmupSeconds;
+    private final long durationSeconds;
+    private final File out;
+
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    LoadTestHarness(String baseUrl, Map<String, String> options) {
+        this.baseUrl = baseUrl;
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        this.users = Integer.parseInt(options.getOrDefault("users", "10"));
+        this.password = options.getOrDefault("password", "loadtest");
+        this.warmupSeconds = Long.parseLong(options.getOrDefault("warmup-seconds", "15"));
+        this.durationSeconds = Long.parseLong(options.getOrDefault("duration-seconds", "60"));
+        this.out = new File(options.getOrDefault("out", "target/loadtest-result.json"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        System.setProperty("http.maxConnections", options.getOrDefault("threads", "16"));
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("url");
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(DemoApplication.class)
+                    .profiles("loadtest")
+                    .run("--server.port=0", "--loadtest.seed.users=" + options.getOrDefault("users", "10"));
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            new LoadTestHarness(baseUrl, options).run();
+        } finally {
+            if (context != null) context.close();
+        }
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        List<Session> sessions = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            sessions.add(login("loadtest" + u + "@example.com"));
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            Session session = sessions.get(t % sessions.size());
+            workers.execute(() -> drive(session));
+        }
+
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpoint.recorder.reset();
+            endpoint.non2xx.reset();
+            endpoint.failures.reset();
+        }
+        recording = true;
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        recording = false;
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+
+        report(elapsedSeconds);
+    }
+
+    private Session login(String email) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode().put("email", email).put("password", password);
+        Response login = request("POST", "/auth", null, objectMapper.writeValueAsBytes(body));
+        if (login.status != 200) throw new IllegalStateException("Login failed for " + email + ": HTTP " + login.status);
+        String authorization = "Bearer " + objectMapper.readTree(login.body).get("jwt").asText();
+
+        Response page = request("GET", "/vacuums/search?limit=1000", authorization, null);
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode vacuum : objectMapper.readTree(page.body).get("items")) {
+            ids.add(vacuum.get("id").asLong());
+        }
+        if (ids.isEmpty()) throw new IllegalStateException("No vacuums visible to " + email);
+        return new Session(authorization, ids);
+    }
+
+    private void drive(Session session) {
+        int totalWeight = 0;
+        for (Endpoint endpoint : Endpoint.values()) totalWeight += endpoint.weight;
+
+        while (running) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int pick = random.nextInt(totalWeight);
+            Endpoint endpoint = Endpoint.SEARCH;
+            for (Endpoint candidate : Endpoint.values()) {
+                if (pick < candidate.weight) {
+                    endpoint = candidate;
+                    break;
+                }
+                pick -= candidate.weight;
+            }
+            Long vacuumId = session.vacuumIds.get(random.nextInt(session.vacuumIds.size()));
+            String action = ACTIONS[random.nextInt(ACTIONS.length)];
+
+            long started = System.nanoTime();
+            try {
+                Response response = send(endpoint, session.authorization, vacuumId, action);
+                if (!recording) continue;
+                endpoint.recorder.recordValue(Math.min(System.nanoTime() - started, MAX_LATENCY_NANOS));
+                if (response.status / 100 != 2) endpoint.non2xx.increment();
+            } catch (IOException e) {
+                if (recording) endpoint.failures.increment();
+            }
+        }
+    }
+
+    private Response send(Endpoint endpoint, String authorization, Long vacuumId, String action) throws IOException {
+        switch (endpoint) {
+            case SEARCH:
+                return request("GET", "/vacuums/search?statuses=RUNNING,STOPPED&limit=100", authorization, null);
+            case COMMAND:
+                return request("PUT", "/vacuums/" + action + "/" + vacuumId, authorization, null);
+            case ERRORS:
+                return request("GET", "/errors?limit=100", authorization, null);
+            case SCHEDULE:
+                ObjectNode body = objectMapper.createObjectNode()
+                        .put("vacuumId", vacuumId)
+                        .put("action", action)
+                        .put("scheduledDateTime", LocalDateTime.now().plusMinutes(2).format(SCHEDULE_FORMAT));
+                return request("POST", "/vacuums/schedule", authorization, objectMapper.writeValueAsBytes(body));
+            default:
+                throw new IllegalArgumentException(endpoint.name());
+        }
+    }
+
+    private static final class Response {
+        final int status;
+        final byte[] body;
+
+        Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private Response request(String method, String path, String authorization, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        if (authorization != null) connection.setRequestProperty("Authorization", authorization);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        // Drain the body either way so the connection goes back to the keep-alive pool
+        InputStream input = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        if (input != null) {
+            try (InputStream in = input) {
+                byte[] chunk = new byte[8192];
+                int read;
+                while ((read = in.read(chunk)) != -1) buffer.write(chunk, 0, read);
+            }
+        }
+        return new Response(status, buffer.toByteArray());
+    }
+
+    private void report(double elapsedSeconds) throws IOException {
+        ObjectNode result = objectMapper.createObjectNode()
+                .put("threads", threads)
+                .put("users", users)
+                .put("durationSeconds", elapsedSeconds);
+        ArrayNode endpoints = result.putArray("endpoints");
+
+        System.out.printf("%n%-28s %10s %10s %10s %10s %10s %10s %8s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "non-2xx", "failed");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = endpoint.recorder.getIntervalHistogram();
+            long count = histogram.getTotalCount();
+            double throughput = count / elapsedSeconds;
+            double p50 = millis(histogram.getValueAtPercentile(50));
+            double p99 = millis(histogram.getValueAtPercentile(99));
+            double p999 = millis(histogram.getValueAtPercentile(99.9));
+            double max = millis(histogram.getMaxValue());
+
+            System.out.printf("%-28s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d %8d%n",
+                    endpoint.label, count, throughput, p50, p99, p999, max, endpoint.non2xx.sum(), endpoint.failures.sum());
+            endpoints.addObject()
+                    .put("endpoint", endpoint.label)
+                    .put("requests", count)
+                    .put("throughput", throughput)
+                    .put("p50Millis", p50)
+                    .put("p99Millis", p99)
+                    .put("p999Millis", p999)
+                    .put("maxMillis", max)
+                    .put("non2xx", endpoint.non2xx.sum())
+                    .put("failed", endpoint.failures.sum());
+        }
+
+        File parent = out.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, result);
+        System.out.println("Results written to " + out.getPath());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.controllers;
 
+import com.example.security.AuthenticatedUser;
 import com.example.security.JwtUtil;
+import com.example.security.LoginExecutor;
+import com.example.security.VerifiedToken;
 import com.example.models.LoginRequest;
 import com.example.models.LoginResponse;
+import com.example.services.TokenRevocationService;
 import com.example.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,6 +22,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @CrossOrigin
@@ -26,17 +35,52 @@ public class AuthController {
     private final UserService userService;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final LoginExecutor loginExecutor;
+    private final TokenRevocationService tokenRevocationService;
+    private final int retryAfterSeconds;
 
     @Autowired
-    public AuthController(AuthenticationManager authenticationManager, UserService userService, JwtUtil jwtUtil, PasswordEncoder passwordEncoder) {
+    public AuthController(AuthenticationManager authenticationManager, UserService userService, JwtUtil jwtUtil, PasswordEncoder passwordEncoder,
+                          LoginExecutor loginExecutor, TokenRevocationService tokenRevocationService, @Value("${auth.login.retry-after-seconds:1}") int retryAfterSeconds) {
         this.authenticationManager = authenticationManager;
         this.userService = userService;
         this.jwtUtil = jwtUtil;
         this.passwordEncoder = passwordEncoder;
+        this.loginExecutor = loginExecutor;
+        this.tokenRevocationService = tokenRevocationService;
+        this.retryAfterSeconds = retryAfterSeconds;
     }
 
+    /**
+     * Password verification runs on the bounded {@link LoginExecutor}; when its queue is full the
+     * login is shed with 503 and a Retry-After hint instead of tying up a request thread.
+     */
     @PostMapping
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest){
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest){
+        try {
+            return loginExecutor.submit(() -> authenticate(loginRequest));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .build());
+        }
+    }
+
+    /**
+     * Revokes the bearer token of this request for the rest of its lifetime.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authorization) {
+        if (!authorization.startsWith("Bearer ")) return ResponseEntity.badRequest().build();
+
+        VerifiedToken token = jwtUtil.verify(authorization.substring(7));
+        if (!tokenRevocationService.revokeToken(token)) {
+            return ResponseEntity.badRequest().body("Token has no id and cannot be revoked individually.");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<?> authenticate(LoginRequest loginRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
@@ -46,6 +90,10 @@ public class AuthController {
             List<String> permissions = userDetails.getAuthorities().stream()
                     .map(GrantedAuthority::getAuthority)
                     .collect(Collectors.toList());
+            if (userDetails instanceof AuthenticatedUser) {
+                AuthenticatedUser user = (AuthenticatedUser) userDetails;
+                return ResponseEntity.ok(new LoginResponse(jwtUtil.generateToken(user.getId(), user.getVersion(), user.getUsername(), permissions)));
+            }
             return ResponseEntity.ok(new LoginResponse(jwtUtil.generateToken(userDetails.getUsername(), permissions)));
         } catch (Exception   e){
             e.printStackTrace();
@@ -0,0 +1,41 @@
+package com.example.controllers;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Strong entity tags derived from {@code @Version} columns. A single entity is tagged with its id and
+ * version; a list with a hash over the id/version pairs in response order, so the tag changes when
+ * any element is added, removed, reordered or updated.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(Object id, Object version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    static <T> String ofAll(Collection<T> items, Function<T, ?> id, Function<T, ?> version) {
+        long hash = 0xCBF29CE484222325L;
+        for (T item : items) {
+            hash = (hash ^ Objects.hashCode(id.apply(item))) * 0x100000001B3L;
+            hash = (hash ^ Objects.hashCode(version.apply(item))) * 0x100000001B3L;
+        }
+        return "\"" + items.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Strong comparison against an {@code If-Match} header value: {@code *} or a list of tags.
+     * Weak tags never match.
+     */
+    static boolean ifMatch(String header, String tag) {
+        for (String candidate : header.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(tag)) return true;
+        }
+        return false;
+    }
+}
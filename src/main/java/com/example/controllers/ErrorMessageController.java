@@ -1,51 +1,94 @@
 package com.example.controllers;
 
-import com.example.models.entities.ErrorMessage;
-import com.example.models.entities.Vacuum;
+import com.example.models.dto.PageCursor;
+import com.example.models.enums.VacuumAction;
+import com.example.security.AuthenticatedUser;
 import com.example.services.ErrorMessageService;
 import com.example.services.UserService;
-import com.example.services.VacuumService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @CrossOrigin
 @RestController
 @RequestMapping("/errors")
 public class ErrorMessageController {
 
-    private final ErrorMessageService errorMessageService;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final int MAX_PAGE_SIZE = 1000;
 
-    private final VacuumService vacuumService;
+    private final ErrorMessageService errorMessageService;
 
     private final UserService userService;
 
     @Autowired
-    public ErrorMessageController(ErrorMessageService errorMessageService, VacuumService vacuumService, UserService userService) {
+    public ErrorMessageController(ErrorMessageService errorMessageService, UserService userService) {
         this.errorMessageService = errorMessageService;
-        this.vacuumService = vacuumService;
         this.userService = userService;
     }
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<ErrorMessage> getAllErrorMessages() {
-        Long userId = userService.findByEmail(loadEmail()).getId();
+    public ResponseEntity<?> getAllErrorMessages(@RequestParam(required = false) VacuumAction action,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                 @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                 @RequestParam(required = false) String after) {
+        Long userId = loadUserId();
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
 
-        List<Long> userVacuumIds = vacuumService.findAllByAddedBy(userId)
-                .stream()
-                .map(Vacuum::getId)
-                .collect(Collectors.toList());
+        try {
+            PageCursor cursor = after == null || after.isEmpty() ? null : PageCursor.decode(after);
+            return ResponseEntity.ok(errorMessageService.findPageByVacuumOwner(userId, action, from, to, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
+    /**
+     * Error counts of the caller's vacuums per vacuum, action and message over whole hours in
+     * [{@code from}, {@code to}), by default the last 24 hours. Served from the hourly rollup, so the
+     * current hour is not counted yet.
+     */
+    @GetMapping(value = "/summary", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getErrorSummary(@RequestParam(required = false) VacuumAction action,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to == null ? LocalDateTime.now().truncatedTo(ChronoUnit.HOURS) : to;
+        LocalDateTime start = from == null ? end.minusDays(1) : from;
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().body("The start of the range must not be after its end.");
+        }
+        return ResponseEntity.ok(errorMessageService.summarizeByVacuumOwner(loadUserId(), action, start, end));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportErrorMessages(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        errorMessageService.exportByVacuumOwner(loadUserId(), response.getOutputStream());
+    }
+
+    private Long loadUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) authentication.getPrincipal()).getId();
+        }
 
-        return errorMessageService.findAll().stream()
-                .filter(errorMessage -> userVacuumIds.contains(errorMessage.getVacuumId()))
-                .collect(Collectors.toList());
+        return userService.findByEmail(loadEmail()).getId();
     }
 
     private String loadEmail() {
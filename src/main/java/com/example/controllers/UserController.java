@@ -1,9 +1,12 @@
 package com.example.controllers;
 
 import com.example.models.entities.User;
+import com.example.models.dto.UserSummary;
 import com.example.models.dto.UserUpdateDto;
 import com.example.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +14,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.persistence.OptimisticLockException;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,15 +34,17 @@ public class UserController {
     }
 
     @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<User> getAllUsers() {
-        return userService.findAll();
+    public ResponseEntity<List<UserSummary>> getAllUsers() {
+        List<UserSummary> users = userService.findAllSummaries();
+        return ResponseEntity.ok().eTag(EntityTags.ofAll(users, UserSummary::getId, UserSummary::getVersion)).body(users);
     }
 
     @GetMapping(value = "/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getUserById(@PathVariable("userId") Long userId) {
-        Optional<User> optionalUser = userService.findById(userId);
+        Optional<UserSummary> optionalUser = userService.findSummaryById(userId);
         if (optionalUser.isPresent()) {
-            return ResponseEntity.ok(optionalUser.get());
+            UserSummary user = optionalUser.get();
+            return ResponseEntity.ok().eTag(EntityTags.of(user.getId(), user.getVersion())).body(user);
         }
         return ResponseEntity.notFound().build();
     }
@@ -53,8 +59,37 @@ public class UserController {
     }
 
     @PutMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> updateUser(@RequestBody @Validated UserUpdateDto userUpdateDto) {
-        return userService.updateUser(userUpdateDto);
+    public ResponseEntity<?> updateUser(@RequestBody @Validated UserUpdateDto userUpdateDto,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Integer expectedVersion = null;
+        if (ifMatch != null) {
+            Optional<User> optionalUser = userService.findById(userUpdateDto.getId());
+            if (!optionalUser.isPresent()) {
+                return ResponseEntity.notFound().build();
+            }
+            User current = optionalUser.get();
+            if (!EntityTags.ifMatch(ifMatch, EntityTags.of(current.getId(), current.getVersion()))) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            expectedVersion = current.getVersion();
+        }
+
+        try {
+            return tagged(userService.updateUser(userUpdateDto, expectedVersion));
+        } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+            // The flush throws the JPA exception, the commit Spring's translation of it
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                    .body("Update failed due to concurrent modification.");
+        }
+    }
+
+    private static ResponseEntity<?> tagged(ResponseEntity<?> response) {
+        if (!(response.getBody() instanceof User)) return response;
+        User user = (User) response.getBody();
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(EntityTags.of(user.getId(), user.getVersion()))
+                .body(user);
     }
 
     @DeleteMapping(value = "/{userId}")
@@ -1,112 +1,182 @@
 package com.example.controllers;
 
 import com.example.models.ScheduledVacuumOperation;
+import com.example.models.dto.PageCursor;
 import com.example.models.enums.Status;
-import com.example.models.entities.User;
 import com.example.models.entities.Vacuum;
 import com.example.models.dto.VacuumDto;
+import com.example.models.dto.VacuumSummary;
 import com.example.models.enums.VacuumAction;
+import com.example.security.AuthenticatedUser;
+import com.example.services.ScheduledOperationService;
 import com.example.services.UserService;
+import com.example.services.VacuumEventHub;
+import com.example.services.VacuumHistoryService;
 import com.example.services.VacuumService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.support.CronTrigger;
-import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @CrossOrigin
 @RestController
 @RequestMapping("/vacuums")
 public class VacuumController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BULK_SIZE = 1000;
+
     private final VacuumService vacuumService;
 
     private final UserService userService;
 
-    private final TaskScheduler taskScheduler;
+    private final ScheduledOperationService scheduledOperationService;
 
-    private final ConcurrentHashMap<Long, Boolean> pendingOperations = new ConcurrentHashMap<>();
+    private final VacuumEventHub vacuumEventHub;
+
+    private final VacuumHistoryService vacuumHistoryService;
 
     @Autowired
-    public VacuumController(VacuumService vacuumService, UserService userService, TaskScheduler taskScheduler) {
+    public VacuumController(VacuumService vacuumService, UserService userService, ScheduledOperationService scheduledOperationService,
+                            VacuumEventHub vacuumEventHub, VacuumHistoryService vacuumHistoryService) {
         this.vacuumService = vacuumService;
         this.userService = userService;
-        this.taskScheduler = taskScheduler;
+        this.scheduledOperationService = scheduledOperationService;
+        this.vacuumEventHub = vacuumEventHub;
+        this.vacuumHistoryService = vacuumHistoryService;
     }
 
+    /**
+     * GETs returning an entity tag answer a matching If-None-Match with 304 before the body is
+     * serialized (see {@link EntityTags}).
+     */
     @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<Vacuum> getAllVacuums() {
-        return vacuumService.findAll();
+    public ResponseEntity<List<VacuumSummary>> getAllVacuums() {
+        List<VacuumSummary> vacuums = vacuumService.findAllSummaries();
+        return ResponseEntity.ok().eTag(EntityTags.ofAll(vacuums, VacuumSummary::getId, VacuumSummary::getVersion)).body(vacuums);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportVacuums(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        vacuumService.exportAll(response.getOutputStream());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamVacuumEvents() {
+        return vacuumEventHub.subscribe(loadUserId());
     }
 
     @GetMapping(value = "/{vacuumId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getVacuumById(@PathVariable("vacuumId") Long vacuumId) {
-        Optional<Vacuum> optionalVacuum = vacuumService.findById(vacuumId);
+        Optional<Vacuum> optionalVacuum = vacuumService.findByIdForRead(vacuumId);
         if (optionalVacuum.isPresent()) {
-            return ResponseEntity.ok(optionalVacuum.get());
+            Vacuum vacuum = optionalVacuum.get();
+            return ResponseEntity.ok().eTag(EntityTags.of(vacuum.getId(), vacuum.getVersion())).body(vacuum);
         }
         return ResponseEntity.notFound().build();
     }
 
     @GetMapping("/search")
-    public List<Vacuum> search(@RequestParam(required = false) String name,
-                               @RequestParam(required = false) List<String> statuses,
-                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateFrom,
-                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateTo) {
+    public ResponseEntity<?> search(@RequestParam(required = false) String name,
+                                    @RequestParam(required = false) List<String> statuses,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateFrom,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateTo,
+                                    @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                    @RequestParam(required = false) String after) {
 
-        Long userId = userService.findByEmail(loadEmail()).getId();
+        Long userId = loadUserId();
 
-        Stream<Vacuum> vacuumStream = vacuumService.findAllByAddedBy(userId).stream();
-
-        if (name != null && !name.isEmpty()) {
-            vacuumStream = vacuumStream.filter(vacuum -> vacuum.getName().contains(name));
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
         }
 
-        if (statuses != null && !statuses.isEmpty()) {
-            Set<Status> statusSet = statuses.stream().map(Status::valueOf).collect(Collectors.toSet());
-            vacuumStream = vacuumStream.filter(vacuum -> statusSet.contains(vacuum.getStatus()));
+        try {
+            Set<Status> statusSet = statuses == null ? null : statuses.stream().map(Status::valueOf).collect(Collectors.toSet());
+            LocalDateTime startDateTime = dateFrom == null ? null : dateFrom.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+            LocalDateTime endDateTime = dateTo == null ? null : dateTo.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+            PageCursor cursor = after == null || after.isEmpty() ? null : PageCursor.decode(after);
+
+            return ResponseEntity.ok(vacuumService.search(userId, name, statusSet, startDateTime, endDateTime, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+    }
 
-        if (dateFrom != null && dateTo != null) {
-            LocalDateTime startDateTime = dateFrom.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
-            LocalDateTime endDateTime = dateTo.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
-            vacuumStream = vacuumStream.filter(vacuum ->
-                    !vacuum.getCreatedAt().isBefore(startDateTime) && !vacuum.getCreatedAt().isAfter(endDateTime));
+    /**
+     * Applied transition steps of one of the caller's vacuums in ({@code from}, {@code to}], by
+     * default the last 24 hours.
+     */
+    @GetMapping(value = "/{vacuumId}/transitions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getTransitions(@PathVariable("vacuumId") Long vacuumId,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                            @RequestParam(required = false) String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
         }
+        if (!isOwnVacuum(vacuumId)) return ResponseEntity.notFound().build();
 
-        return vacuumStream.collect(Collectors.toList());
+        try {
+            LocalDateTime end = to == null ? LocalDateTime.now() : to;
+            LocalDateTime start = from == null ? end.minusDays(1) : from;
+            PageCursor cursor = after == null || after.isEmpty() ? null : PageCursor.decode(after);
+            return ResponseEntity.ok(vacuumHistoryService.findTimeline(vacuumId, start, end, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
-
-    private void filterAndAddResults(Set<Vacuum> vacuums, List<Vacuum> results, Long userId) {
-        for (Vacuum vacuum : results) {
-            if (vacuum.getAddedBy().equals(userId)) vacuums.add(vacuum);
+    /**
+     * Time one of the caller's vacuums spent running in [{@code from}, {@code to}], by default the
+     * last 24 hours.
+     */
+    @GetMapping(value = "/{vacuumId}/uptime", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getUptime(@PathVariable("vacuumId") Long vacuumId,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!isOwnVacuum(vacuumId)) return ResponseEntity.notFound().build();
+
+        LocalDateTime end = to == null ? LocalDateTime.now() : to;
+        LocalDateTime start = from == null ? end.minusDays(1) : from;
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().body("The start of the range must not be after its end.");
         }
+        return ResponseEntity.ok(vacuumHistoryService.findUptime(vacuumId, start, end));
+    }
+
+    private boolean isOwnVacuum(Long vacuumId) {
+        Optional<Vacuum> vacuum = vacuumService.findByIdForRead(vacuumId);
+        return vacuum.isPresent() && vacuum.get().getAddedBy().equals(loadUserId());
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Object> createVacuum( @RequestBody @Validated VacuumDto vacuumDto) {
-        User user = userService.findByEmail(loadEmail());
         Vacuum vacuum = new Vacuum();
         vacuum.setName(vacuumDto.getName());
-        vacuum.setAddedBy(user.getId());
+        vacuum.setAddedBy(loadUserId());
         vacuum.setStatus(Status.STOPPED);
         vacuum.setCycle(0);
         vacuum.setActive(true);
@@ -122,8 +192,7 @@ public class VacuumController {
             LocalDateTime now = LocalDateTime.now();
 
             if (scheduledDateTime.isAfter(now)) {
-                String cronExpression = generateCronExpression(scheduledDateTime);
-                scheduleTask(operation, cronExpression);
+                scheduledOperationService.schedule(operation.getVacuumId(), operation.getAction(), loadUserId(), scheduledDateTime);
                 return ResponseEntity.ok("Operation scheduled successfully.");
             } else {
                 return ResponseEntity.badRequest().body("Scheduled date has passed or is the same as the current date.");
@@ -135,40 +204,43 @@ public class VacuumController {
     }
 
 
-    private void scheduleTask(ScheduledVacuumOperation operation, String cronExpression) {
-        Runnable task = () -> performOperation(operation);
-        Runnable securityContextTask = new DelegatingSecurityContextRunnable(task);
-        taskScheduler.schedule(securityContextTask, new CronTrigger(cronExpression));
-    }
-
-
-    private void performOperation(ScheduledVacuumOperation operation) {
-        updateVacuumStatus(operation.getVacuumId(), operation.getAction());
-    }
-
-    private String generateCronExpression(LocalDateTime executionDateTime) {
-        return String.format("0 %d %d %d %d ?",
-                executionDateTime.getMinute(),
-                executionDateTime.getHour(),
-                executionDateTime.getDayOfMonth(),
-                executionDateTime.getMonthValue());
-    }
-
-
     @PutMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> updateVacuum(@RequestBody @Validated Vacuum vacuum) {
-        Optional<Vacuum> optionalUser = vacuumService.findById(vacuum.getId());
-
-        if (optionalUser.isPresent()) {
-            return ResponseEntity.ok(vacuumService.save(vacuum));
-        } else {
+    public ResponseEntity<?> updateVacuum(@RequestBody @Validated Vacuum vacuum,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Vacuum> optionalVacuum = vacuumService.findById(vacuum.getId());
+        if (!optionalVacuum.isPresent()) {
             return ResponseEntity.notFound().build();
         }
+
+        if (ifMatch != null) {
+            Vacuum current = optionalVacuum.get();
+            if (!EntityTags.ifMatch(ifMatch, EntityTags.of(current.getId(), current.getVersion()))) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            // Saving with the matched version makes a concurrent update fail the optimistic lock
+            vacuum.setVersion(current.getVersion());
+        }
+
+        try {
+            Vacuum saved = vacuumService.save(vacuum);
+            return ResponseEntity.ok().eTag(EntityTags.of(saved.getId(), saved.getVersion())).body(saved);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                    .body("Update failed due to concurrent modification.");
+        }
     }
 
     @PutMapping("/{action}/{id}")
     public ResponseEntity<?> updateVacuumStatus(@PathVariable Long id, @PathVariable VacuumAction action) {
-        return vacuumService.updateVacuumStatus(id, action, loadEmail());
+        return vacuumService.updateVacuumStatus(id, action, loadUserId());
+    }
+
+    @PutMapping(value = "/bulk/{action}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bulkUpdateVacuumStatus(@PathVariable VacuumAction action, @RequestBody List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().body("Between 1 and " + MAX_BULK_SIZE + " vacuum ids are required.");
+        }
+        return ResponseEntity.ok(vacuumService.bulkUpdateVacuumStatus(ids, action, loadUserId()));
     }
 
     @DeleteMapping(value = "/{vacuumId}")
@@ -182,6 +254,16 @@ public class VacuumController {
         return ResponseEntity.ok().build();
     }
 
+    private Long loadUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) authentication.getPrincipal()).getId();
+        }
+
+        return userService.findByEmail(loadEmail()).getId();
+    }
+
     private String loadEmail() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = null;
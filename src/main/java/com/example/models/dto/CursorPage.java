@@ -0,0 +1,11 @@
+package com.example.models.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.example.models.dto;
+
+import com.example.models.enums.VacuumAction;
+
+/**
+ * Number of error messages of one vacuum, action and message.
+ */
+public interface ErrorCountRow {
+    Long getVacuumId();
+
+    VacuumAction getAction();
+
+    String getMessage();
+
+    Long getErrorCount();
+}
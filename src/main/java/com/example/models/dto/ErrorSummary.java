@@ -0,0 +1,12 @@
+package com.example.models.dto;
+
+import com.example.models.enums.VacuumAction;
+import lombok.Data;
+
+@Data
+public class ErrorSummary {
+    private final Long vacuumId;
+    private final VacuumAction action;
+    private final String message;
+    private final long count;
+}
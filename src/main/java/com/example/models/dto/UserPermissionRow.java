@@ -0,0 +1,20 @@
+package com.example.models.dto;
+
+import com.example.models.enums.Permission;
+
+/**
+ * One row of a user joined with one of its permissions ({@code null} for a user without any).
+ */
+public interface UserPermissionRow {
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    Integer getVersion();
+
+    Permission getPermission();
+}
@@ -0,0 +1,22 @@
+package com.example.models.dto;
+
+import com.example.models.enums.Permission;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * What the user endpoints return: no password hash, and the version only for the ETag.
+ */
+@Data
+public class UserSummary {
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    @JsonIgnore
+    private final Integer version;
+    private final Set<Permission> permissions = EnumSet.noneOf(Permission.class);
+}
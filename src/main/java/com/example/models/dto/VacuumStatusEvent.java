@@ -0,0 +1,18 @@
+package com.example.models.dto;
+
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import lombok.Data;
+
+@Data
+public class VacuumStatusEvent {
+    private final Long id;
+    private final Status status;
+    private final int cycle;
+    private final Long version;
+    private final boolean active;
+
+    public static VacuumStatusEvent of(Vacuum vacuum) {
+        return new VacuumStatusEvent(vacuum.getId(), vacuum.getStatus(), vacuum.getCycle(), vacuum.getVersion(), vacuum.isActive());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.models.dto;
+
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * What the vacuum list endpoints return. The version stays in the JSON, as it was for the entity, so
+ * that a client sending a listed vacuum back to PUT /vacuums keeps its optimistic lock check.
+ */
+@Data
+public class VacuumSummary {
+    private final Long id;
+    private final String name;
+    private final Status status;
+    private final Long addedBy;
+    private final boolean active;
+    private final int cycle;
+    private final LocalDateTime createdAt;
+    private final Long version;
+
+    public static VacuumSummary of(Vacuum vacuum) {
+        return new VacuumSummary(vacuum.getId(), vacuum.getName(), vacuum.getStatus(), vacuum.getAddedBy(),
+                vacuum.isActive(), vacuum.getCycle(), vacuum.getCreatedAt(), vacuum.getVersion());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.models.dto;
+
+import com.example.models.enums.Status;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time a vacuum spent running within [{@code from}, {@code to}], the transition steps applied in
+ * that range and its status at {@code to}.
+ */
+@Data
+public class VacuumUptime {
+    private final Long vacuumId;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final long runningMillis;
+    private final long transitions;
+    private final Status status;
+}
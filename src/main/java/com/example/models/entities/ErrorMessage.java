@@ -8,10 +8,16 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "error_messages")
+@Table(name = "error_messages", indexes = {
+        @Index(name = "idx_error_messages_vacuum_id_timestamp", columnList = "vacuumId, timestamp"),
+        @Index(name = "idx_error_messages_timestamp", columnList = "timestamp")
+})
 public class ErrorMessage {
+    public static final int ID_ALLOCATION_SIZE = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "error_messages_seq")
+    @SequenceGenerator(name = "error_messages_seq", sequenceName = "error_messages_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     private LocalDateTime timestamp;
 
@@ -23,6 +29,6 @@ public class ErrorMessage {
 
     @PrePersist
     public void prePersist() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) timestamp = LocalDateTime.now();
     }
 }
@@ -0,0 +1,39 @@
+package com.example.models.entities;
+
+import com.example.models.enums.VacuumAction;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Number of error messages logged for one vacuum, action and message within the hour starting at
+ * {@code periodStart}. Kept after the raw rows in {@code error_messages} expire.
+ */
+@Data
+@Entity
+@Table(name = "error_message_rollups", indexes = {
+        @Index(name = "uk_error_message_rollups_period", columnList = "period_start, vacuum_id, action, message", unique = true),
+        @Index(name = "idx_error_message_rollups_vacuum_id_period", columnList = "vacuum_id, period_start")
+})
+public class ErrorMessageRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    @Column(name = "vacuum_id")
+    private Long vacuumId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private VacuumAction action;
+
+    private String message;
+
+    @Column(name = "error_count", nullable = false)
+    private long errorCount;
+}
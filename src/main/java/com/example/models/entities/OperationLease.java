@@ -0,0 +1,21 @@
+package com.example.models.entities;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "operation_leases")
+public class OperationLease {
+
+    @Id
+    @Column(name = "vacuum_id")
+    private Long vacuumId;
+
+    private String owner;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
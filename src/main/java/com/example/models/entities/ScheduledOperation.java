@@ -0,0 +1,48 @@
+package com.example.models.entities;
+
+import com.example.models.enums.ScheduledOperationStatus;
+import com.example.models.enums.VacuumAction;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "scheduled_operations", indexes = @Index(name = "idx_scheduled_operations_status_scheduled_at", columnList = "status, scheduled_at, id"))
+public class ScheduledOperation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "vacuum_id", nullable = false)
+    private Long vacuumId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private VacuumAction action;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "scheduled_at", nullable = false)
+    private LocalDateTime scheduledAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScheduledOperationStatus status;
+
+    private String result;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.models.entities;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Either a single revoked token ({@code tokenId}, the token's {@code jti}) or every token of a user
+ * issued for a version below {@code minUserVersion}. Rows are only needed until {@code expiresAt},
+ * when every token they could match has expired.
+ */
+@Data
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_expires_at", columnList = "expires_at")
+})
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_id", length = 64)
+    private String tokenId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "min_user_version")
+    private Integer minUserVersion;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -2,13 +2,21 @@ package com.example.models.entities;
 
 import com.example.models.enums.Status;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "vacuums")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "vacuums", indexes = {
+        @Index(name = "idx_vacuums_added_by_status_created_at", columnList = "added_by, status, created_at"),
+        @Index(name = "idx_vacuums_added_by_created_at", columnList = "added_by, created_at, id"),
+        @Index(name = "idx_vacuums_updated_at", columnList = "updated_at")
+})
 public class Vacuum {
 
     @Id
@@ -32,8 +40,18 @@ public class Vacuum {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Lets other instances find the vacuums changed since they last looked
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @PrePersist
     public void prePersist() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 }
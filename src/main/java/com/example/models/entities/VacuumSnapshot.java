@@ -0,0 +1,64 @@
+package com.example.models.entities;
+
+import com.example.models.enums.Status;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * State of a vacuum folded from its transition log up to {@code takenAt}: the status it was in,
+ * and the time it had spent {@link Status#RUNNING} and the number of steps applied since the log
+ * began. Timeline and uptime queries start from the latest snapshot and only read the log after it.
+ */
+@Data
+@Entity
+@IdClass(VacuumSnapshot.Key.class)
+@Table(name = "vacuum_snapshots")
+public class VacuumSnapshot implements Persistable<VacuumSnapshot.Key> {
+
+    @Id
+    @Column(name = "vacuum_id")
+    private Long vacuumId;
+
+    @Id
+    @Column(name = "taken_at")
+    private LocalDateTime takenAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Status status;
+
+    private int cycle;
+
+    @Column(name = "running_millis")
+    private long runningMillis;
+
+    private long transitions;
+
+    @Override
+    public Key getId() {
+        return new Key(vacuumId, takenAt);
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    public static class Key implements Serializable {
+        private Long vacuumId;
+        private LocalDateTime takenAt;
+
+        public Key() {
+        }
+
+        public Key(Long vacuumId, LocalDateTime takenAt) {
+            this.vacuumId = vacuumId;
+            this.takenAt = takenAt;
+        }
+    }
+}
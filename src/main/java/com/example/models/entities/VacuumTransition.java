@@ -0,0 +1,85 @@
+package com.example.models.entities;
+
+import com.example.models.enums.Status;
+import com.example.models.enums.TransitionStep;
+import com.example.models.enums.VacuumAction;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One applied step of a vacuum transition, appended to {@code vacuum_transitions} and never updated.
+ * The key is (vacuum id, time): it contains the column the table is range-partitioned on, as MySQL
+ * requires, and keeps each vacuum's timeline contiguous within a partition. Steps of one vacuum are
+ * serialized by its operation lease, so the time alone tells them apart.
+ */
+@Data
+@Entity
+@IdClass(VacuumTransition.Key.class)
+@Table(name = "vacuum_transitions", indexes = @Index(name = "idx_vacuum_transitions_occurred_at", columnList = "occurred_at"))
+public class VacuumTransition implements Persistable<VacuumTransition.Key> {
+
+    @Id
+    @Column(name = "vacuum_id")
+    private Long vacuumId;
+
+    @Id
+    @Column(name = "occurred_at")
+    private LocalDateTime occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private VacuumAction action;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private TransitionStep step;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 16)
+    private Status fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", length = 16)
+    private Status toStatus;
+
+    private int cycle;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    /** When the command that started the transition was accepted. */
+    @Column(name = "requested_at")
+    private LocalDateTime requestedAt;
+
+    @Override
+    @JsonIgnore
+    public Key getId() {
+        return new Key(vacuumId, occurredAt);
+    }
+
+    /** Rows are only ever inserted, so saving never has to look for an existing one. */
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    public static class Key implements Serializable {
+        private Long vacuumId;
+        private LocalDateTime occurredAt;
+
+        public Key() {
+        }
+
+        public Key(Long vacuumId, LocalDateTime occurredAt) {
+            this.vacuumId = vacuumId;
+            this.occurredAt = occurredAt;
+        }
+    }
+}
@@ -10,5 +10,6 @@ public enum Permission {
     can_stop_vacuum,
     can_discharge_vacuum,
     can_add_vacuum,
-    can_remove_vacuum
+    can_remove_vacuum,
+    can_read_metrics
 }
@@ -0,0 +1,7 @@
+package com.example.models.enums;
+
+public enum ScheduledOperationStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,57 @@
+package com.example.models.enums;
+
+import lombok.Getter;
+
+/**
+ * Steps of the vacuum state machine. Every {@link VacuumAction} starts with one step and each
+ * step, once applied, decides the step that follows it:
+ * STOPPED -> RUNNING, RUNNING -> STOPPED (-> DISCHARGING -> STOPPED after the third cycle),
+ * STOPPED -> DISCHARGING -> STOPPED.
+ */
+@Getter
+public enum TransitionStep {
+    RUN(Status.RUNNING, false),
+    STOP(Status.STOPPED, false),
+    AUTO_DISCHARGE(Status.DISCHARGING, true),
+    DISCHARGE(Status.DISCHARGING, false),
+    FINISH_DISCHARGE(Status.STOPPED, true);
+
+    public static final int CYCLES_BEFORE_DISCHARGE = 3;
+
+    private final Status status;
+    private final boolean resetsCycle;
+
+    TransitionStep(Status status, boolean resetsCycle) {
+        this.status = status;
+        this.resetsCycle = resetsCycle;
+    }
+
+    public static TransitionStep first(VacuumAction action) {
+        switch (action) {
+            case START:
+                return RUN;
+            case STOP:
+                return STOP;
+            case DISCHARGE:
+                return DISCHARGE;
+            default:
+                throw new IllegalArgumentException("Unknown action " + action);
+        }
+    }
+
+    /**
+     * @return the step to run after this one was applied to a vacuum now at {@code cycle},
+     * or {@code null} when the transition is complete
+     */
+    public TransitionStep next(int cycle) {
+        switch (this) {
+            case STOP:
+                return cycle == CYCLES_BEFORE_DISCHARGE ? AUTO_DISCHARGE : null;
+            case AUTO_DISCHARGE:
+            case DISCHARGE:
+                return FINISH_DISCHARGE;
+            default:
+                return null;
+        }
+    }
+}
@@ -1,8 +1,72 @@
 package com.example.repositories;
 
+import com.example.models.dto.ErrorCountRow;
 import com.example.models.entities.ErrorMessage;
+import com.example.models.enums.VacuumAction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface ErrorMessageRepository extends CrudRepository<ErrorMessage, Long> {
 
+    /**
+     * Error messages of the vacuums added by {@code userId}, ordered by (timestamp, id) and
+     * continued after the ({@code afterTimestamp}, {@code afterId}) keyset position when given.
+     */
+    @Query("select e from ErrorMessage e join Vacuum v on v.id = e.vacuumId " +
+            "where v.addedBy = :userId " +
+            "and (:action is null or e.action = :action) " +
+            "and (:from is null or e.timestamp >= :from) " +
+            "and (:to is null or e.timestamp <= :to) " +
+            "and (:afterTimestamp is null or e.timestamp > :afterTimestamp " +
+            "     or (e.timestamp = :afterTimestamp and e.id > :afterId)) " +
+            "order by e.timestamp asc, e.id asc")
+    List<ErrorMessage> findPageByVacuumOwner(@Param("userId") Long userId,
+                                             @Param("action") VacuumAction action,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select e from ErrorMessage e join Vacuum v on v.id = e.vacuumId " +
+            "where v.addedBy = :userId order by e.timestamp asc, e.id asc")
+    Stream<ErrorMessage> streamByVacuumOwner(@Param("userId") Long userId);
+
+    /**
+     * Error counts per vacuum, action and message of the messages logged in [{@code from}, {@code to}).
+     */
+    @Query("select e.vacuumId as vacuumId, e.action as action, e.message as message, count(e) as errorCount " +
+            "from ErrorMessage e where e.timestamp >= :from and e.timestamp < :to " +
+            "group by e.vacuumId, e.action, e.message")
+    List<ErrorCountRow> countBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select min(e.timestamp) from ErrorMessage e where e.timestamp >= :from")
+    LocalDateTime findFirstTimestampFrom(@Param("from") LocalDateTime from);
+
+    /**
+     * Ids of the oldest messages logged before {@code cutoff}, read from the timestamp index.
+     */
+    @Query("select e.id from ErrorMessage e where e.timestamp < :cutoff order by e.timestamp asc")
+    List<Long> findIdsBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("delete from ErrorMessage e where e.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
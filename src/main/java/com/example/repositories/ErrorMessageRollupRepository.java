@@ -0,0 +1,33 @@
+package com.example.repositories;
+
+import com.example.models.dto.ErrorSummary;
+import com.example.models.entities.ErrorMessageRollup;
+import com.example.models.enums.VacuumAction;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ErrorMessageRollupRepository extends CrudRepository<ErrorMessageRollup, Long> {
+
+    @Query("select max(r.periodStart) from ErrorMessageRollup r")
+    LocalDateTime findLastPeriodStart();
+
+    /**
+     * Error counts of the vacuums added by {@code userId} over the hours starting in [{@code from}, {@code to}),
+     * most frequent first.
+     */
+    @Query("select new com.example.models.dto.ErrorSummary(r.vacuumId, r.action, r.message, sum(r.errorCount)) " +
+            "from ErrorMessageRollup r join Vacuum v on v.id = r.vacuumId " +
+            "where v.addedBy = :userId " +
+            "and r.periodStart >= :from and r.periodStart < :to " +
+            "and (:action is null or r.action = :action) " +
+            "group by r.vacuumId, r.action, r.message " +
+            "order by sum(r.errorCount) desc, r.vacuumId asc")
+    List<ErrorSummary> summarizeByVacuumOwner(@Param("userId") Long userId,
+                                              @Param("action") VacuumAction action,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,49 @@
+package com.example.repositories;
+
+import com.example.models.entities.OperationLease;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.hibernate.annotations.QueryHints.NATIVE_SPACES;
+
+public interface OperationLeaseRepository extends CrudRepository<OperationLease, Long> {
+
+    /**
+     * Takes over the lease row if it is free or expired; returns 1 when {@code owner} now holds it.
+     */
+    @Modifying
+    @Query("update OperationLease l set l.owner = :owner, l.expiresAt = :expiresAt " +
+            "where l.vacuumId = :vacuumId and (l.owner is null or l.expiresAt < :now)")
+    int acquire(@Param("vacuumId") Long vacuumId,
+                @Param("owner") String owner,
+                @Param("expiresAt") LocalDateTime expiresAt,
+                @Param("now") LocalDateTime now);
+
+    // Declares the touched table, otherwise Hibernate invalidates every second-level cache region
+    @Modifying
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = "operation_leases"))
+    @Query(value = "insert into operation_leases (vacuum_id, owner, expires_at) values (:vacuumId, :owner, :expiresAt)",
+            nativeQuery = true)
+    int insert(@Param("vacuumId") Long vacuumId,
+               @Param("owner") String owner,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("update OperationLease l set l.expiresAt = :expiresAt " +
+            "where l.owner = :owner and l.vacuumId in :vacuumIds")
+    int renew(@Param("owner") String owner,
+              @Param("vacuumIds") Collection<Long> vacuumIds,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("update OperationLease l set l.owner = null, l.expiresAt = null " +
+            "where l.vacuumId = :vacuumId and l.owner = :owner")
+    int release(@Param("vacuumId") Long vacuumId, @Param("owner") String owner);
+}
@@ -0,0 +1,89 @@
+package com.example.repositories;
+
+import com.example.security.AuthenticatedUser;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends read-only transactions opened by application services to the replica and everything else to
+ * the primary. It has to sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so that the connection is only looked up once the transaction's read-only flag is set.
+ * The choice is made once per physical connection, so every transaction has to get its own: with
+ * {@code spring.jpa.open-in-view} on, the first transaction of a request would pick the connection for
+ * all the others.
+ *
+ * <p>Read-only transactions that Spring Data opens around a single repository call stay on the
+ * primary: they are typically the read half of a read-modify-write done without a surrounding
+ * transaction, which must see the latest {@code @Version}. Authentication lookups and the vacuum read
+ * model rebuild rely on this too: they do not open read-only service transactions, so they never
+ * read the replica.
+ *
+ * <p>Replica lag guard: after a user's write commits, that user's reads go to the primary for
+ * {@code readYourWritesMillis}.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long readYourWritesMillis;
+    // User id to the time until which their reads stay on the primary
+    private final ConcurrentHashMap<Long, Long> recentWriters = new ConcurrentHashMap<>();
+
+    ReadWriteRoutingDataSource(long readYourWritesMillis) {
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null) recordWriteAfterCommit(userId);
+            return PRIMARY;
+        }
+        if (isRepositoryTransaction(TransactionSynchronizationManager.getCurrentTransactionName())) return PRIMARY;
+        if (userId != null) {
+            Long primaryUntil = recentWriters.get(userId);
+            if (primaryUntil != null && primaryUntil > System.currentTimeMillis()) return PRIMARY;
+        }
+        return REPLICA;
+    }
+
+    private static boolean isRepositoryTransaction(String name) {
+        return name == null || name.startsWith("org.springframework.data.") || name.startsWith("com.example.repositories.");
+    }
+
+    private void recordWriteAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordWrite(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(userId);
+            }
+        });
+    }
+
+    private void recordWrite(Long userId) {
+        long now = System.currentTimeMillis();
+        recentWriters.put(userId, now + readYourWritesMillis);
+        if (recentWriters.size() > PURGE_THRESHOLD) {
+            recentWriters.values().removeIf(primaryUntil -> primaryUntil <= now);
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser)) return null;
+        return ((AuthenticatedUser) authentication.getPrincipal()).getId();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.repositories;
+
+import com.example.models.entities.ScheduledOperation;
+import com.example.models.enums.ScheduledOperationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ScheduledOperationRepository extends CrudRepository<ScheduledOperation, Long> {
+
+    /**
+     * Operations in {@code status} scheduled up to {@code until}, ordered by (scheduledAt, id) and
+     * continued after the ({@code afterTime}, {@code afterId}) keyset position when given.
+     */
+    @Query("select o from ScheduledOperation o where o.status = :status and o.scheduledAt <= :until " +
+            "and (:afterTime is null or o.scheduledAt > :afterTime " +
+            "     or (o.scheduledAt = :afterTime and o.id > :afterId)) " +
+            "order by o.scheduledAt asc, o.id asc")
+    List<ScheduledOperation> findBatch(@Param("status") ScheduledOperationStatus status,
+                                       @Param("until") LocalDateTime until,
+                                       @Param("afterTime") LocalDateTime afterTime,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    @Modifying
+    @Query("update ScheduledOperation o set o.status = :to, o.completedAt = :now " +
+            "where o.id = :id and o.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") ScheduledOperationStatus from,
+                   @Param("to") ScheduledOperationStatus to,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update ScheduledOperation o set o.status = :status, o.result = :result where o.id = :id")
+    int recordResult(@Param("id") Long id,
+                     @Param("status") ScheduledOperationStatus status,
+                     @Param("result") String result);
+}
@@ -0,0 +1,83 @@
+package com.example.repositories;
+
+import com.example.models.entities.Vacuum;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level and query cache on an Ehcache JCache manager owned by this context. Every
+ * region is declared here with its own heap size and time-to-live; Hibernate fails at startup if an
+ * entity or collection is marked cacheable without a region.
+ *
+ * <p>The cache is local to each instance. Entities use READ_WRITE concurrency, so local writes
+ * invalidate and re-put entries in step with their {@code @Version}; changes made by other instances
+ * become visible when the entry expires, and an update based on such a stale copy fails its version
+ * check instead of overwriting newer data.
+ *
+ * <p>Cached query results are invalidated only by this instance's writes to the tables they read.
+ * With the read model disabled, {@code findAllByAddedBy} and {@code findAllByStatus} serve the vacuum
+ * lists, so vacuums changed by other instances appear there up to {@code cache.query.ttl-seconds}
+ * (60 seconds by default) late.
+ *
+ * <p>Users are deliberately not cached: authentication must see a changed password or a revoked
+ * permission at once, not after another instance's entry expires.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    static final String UPDATE_TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${cache.vacuum.max-entries:10000}") long vacuumEntries,
+                                              @Value("${cache.vacuum.ttl-seconds:300}") long vacuumTtl,
+                                              @Value("${cache.query.max-entries:1000}") long queryEntries,
+                                              @Value("${cache.query.ttl-seconds:60}") long queryTtl) {
+        ConfigurationBuilder configuration = ConfigurationBuilder.newConfigurationBuilder()
+                .withCache(Vacuum.class.getName(), region(vacuumEntries, vacuumTtl))
+                .withCache(QUERY_RESULTS_REGION, region(queryEntries, queryTtl))
+                // Must never lose an entry before the cached queries depending on it
+                .withCache(UPDATE_TIMESTAMPS_REGION, CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(Integer.MAX_VALUE))
+                        .withExpiry(ExpiryPolicyBuilder.noExpiration())
+                        .build());
+
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // A unique URI so that several application contexts in one JVM get separate managers
+        return provider.getCacheManager(URI.create("hibernate-l2:" + UUID.randomUUID()), configuration.build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager hibernateCacheManager,
+                                                                    @Value("${cache.enabled:true}") boolean enabled) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", enabled);
+            properties.put("hibernate.cache.use_query_cache", enabled);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            properties.put("hibernate.generate_statistics", true);
+        };
+    }
+
+    private static CacheConfiguration<Object, Object> region(long maxEntries, long ttlSeconds) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)))
+                .build();
+    }
+}
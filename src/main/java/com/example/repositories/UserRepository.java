@@ -1,13 +1,28 @@
 package com.example.repositories;
 
+import com.example.models.dto.UserPermissionRow;
 import com.example.models.entities.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends CrudRepository<User, Long> {
 
+    // Not cached, but one round trip: the permissions are joined instead of loaded by a second select
+    @EntityGraph(attributePaths = "permissions")
     Optional<User> findByEmail(String email);
 
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName, u.email as email, u.version as version, " +
+            "p as permission from User u left join u.permissions p order by u.id")
+    List<UserPermissionRow> findAllPermissionRows();
+
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName, u.email as email, u.version as version, " +
+            "p as permission from User u left join u.permissions p where u.id = :id")
+    List<UserPermissionRow> findPermissionRowsById(@Param("id") Long id);
+
 
 }
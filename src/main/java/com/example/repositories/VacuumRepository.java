@@ -1,20 +1,54 @@
 package com.example.repositories;
 
+import com.example.models.dto.VacuumSummary;
 import com.example.models.enums.Status;
 import com.example.models.entities.Vacuum;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface VacuumRepository extends CrudRepository<Vacuum, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
+public interface VacuumRepository extends CrudRepository<Vacuum, Long>, JpaSpecificationExecutor<Vacuum>, VacuumSearchRepository {
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Vacuum> findAllByAddedBy(Long userId);
 
     List<Vacuum> findAllByNameContaining(String name);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Vacuum> findAllByStatus(Status status);
 
     List<Vacuum> findAllByCreatedAtBetween(LocalDateTime startDateTime, LocalDateTime endDateTime);
 
+    @Query("select new com.example.models.dto.VacuumSummary(v.id, v.name, v.status, v.addedBy, v.active, v.cycle, v.createdAt, v.version) " +
+            "from Vacuum v order by v.id")
+    List<VacuumSummary> findAllSummaries();
+
+    // Projections are not managed, so a later transaction still loads the vacuums from the database
+    @Query("select new com.example.models.dto.VacuumSummary(v.id, v.name, v.status, v.addedBy, v.active, v.cycle, v.createdAt, v.version) " +
+            "from Vacuum v where v.id in :ids")
+    List<VacuumSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("select v from Vacuum v where v.updatedAt >= :since")
+    List<Vacuum> findUpdatedSince(@Param("since") LocalDateTime since);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select v from Vacuum v order by v.id")
+    Stream<Vacuum> streamAll();
+
 }
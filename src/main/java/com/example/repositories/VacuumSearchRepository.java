@@ -0,0 +1,15 @@
+package com.example.repositories;
+
+import com.example.models.entities.Vacuum;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface VacuumSearchRepository {
+
+    /**
+     * Returns at most {@code limit} vacuums matching {@code specification}, ordered by (createdAt, id)
+     * so the result can be continued with {@link VacuumSpecifications#after}.
+     */
+    List<Vacuum> searchOrdered(Specification<Vacuum> specification, int limit);
+}
@@ -0,0 +1,32 @@
+package com.example.repositories;
+
+import com.example.models.entities.Vacuum;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+public class VacuumSearchRepositoryImpl implements VacuumSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Vacuum> searchOrdered(Specification<Vacuum> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Vacuum> query = cb.createQuery(Vacuum.class);
+        Root<Vacuum> root = query.from(Vacuum.class);
+
+        query.select(root)
+                .where(specification.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("createdAt")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
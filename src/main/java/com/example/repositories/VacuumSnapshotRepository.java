@@ -0,0 +1,30 @@
+package com.example.repositories;
+
+import com.example.models.entities.VacuumSnapshot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface VacuumSnapshotRepository extends CrudRepository<VacuumSnapshot, VacuumSnapshot.Key> {
+
+    /**
+     * The latest snapshot of the vacuum taken at or before {@code at}, as a list of at most one.
+     */
+    @Query("select s from VacuumSnapshot s where s.vacuumId = :vacuumId and s.takenAt <= :at order by s.takenAt desc")
+    List<VacuumSnapshot> findLatest(@Param("vacuumId") Long vacuumId, @Param("at") LocalDateTime at, Pageable pageable);
+
+    /**
+     * The latest snapshot taken at or before {@code at} of each of the vacuums that has one.
+     */
+    @Query("select s from VacuumSnapshot s where s.vacuumId in :vacuumIds and s.takenAt = " +
+            "(select max(l.takenAt) from VacuumSnapshot l where l.vacuumId = s.vacuumId and l.takenAt <= :at)")
+    List<VacuumSnapshot> findLatest(@Param("vacuumIds") Collection<Long> vacuumIds, @Param("at") LocalDateTime at);
+
+    @Query("select max(s.takenAt) from VacuumSnapshot s")
+    LocalDateTime findLastTakenAt();
+}
@@ -0,0 +1,54 @@
+package com.example.repositories;
+
+import com.example.models.dto.PageCursor;
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+
+public final class VacuumSpecifications {
+
+    private VacuumSpecifications() {
+    }
+
+    public static Specification<Vacuum> addedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("addedBy"), userId);
+    }
+
+    /**
+     * Case-insensitive on every database, not only under MySQL's default collation, so that it matches
+     * the read model's search.
+     */
+    public static Specification<Vacuum> nameContains(String name) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), "%" + escapeLike(name.toLowerCase(Locale.ROOT)) + "%", '\\');
+    }
+
+    public static Specification<Vacuum> statusIn(Collection<Status> statuses) {
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<Vacuum> createdFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Vacuum> createdTo(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdAt"), to);
+    }
+
+    /**
+     * Rows strictly after the cursor in (createdAt, id) order.
+     */
+    public static Specification<Vacuum> after(PageCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("createdAt"), cursor.getTimestamp()),
+                cb.and(cb.equal(root.get("createdAt"), cursor.getTimestamp()),
+                        cb.greaterThan(root.get("id"), cursor.getId())));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.repositories;
+
+import com.example.models.entities.VacuumTransition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * Every query is bounded by {@code occurredAt}, so the database only reads the partitions of that
+ * time range.
+ */
+public interface VacuumTransitionRepository extends CrudRepository<VacuumTransition, VacuumTransition.Key> {
+
+    /**
+     * Transitions of one vacuum with {@code after < occurredAt <= until}, oldest first.
+     */
+    @Query("select t from VacuumTransition t where t.vacuumId = :vacuumId " +
+            "and t.occurredAt > :after and t.occurredAt <= :until order by t.occurredAt asc")
+    List<VacuumTransition> findBetween(@Param("vacuumId") Long vacuumId,
+                                       @Param("after") LocalDateTime after,
+                                       @Param("until") LocalDateTime until,
+                                       Pageable pageable);
+
+    /**
+     * Transitions of all vacuums with {@code after < occurredAt <= until}, grouped by vacuum and
+     * oldest first within each.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select t from VacuumTransition t where t.occurredAt > :after and t.occurredAt <= :until " +
+            "order by t.vacuumId asc, t.occurredAt asc")
+    Stream<VacuumTransition> streamBetween(@Param("after") LocalDateTime after, @Param("until") LocalDateTime until);
+}
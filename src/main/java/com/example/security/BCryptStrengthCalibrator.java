@@ -0,0 +1,43 @@
+package com.example.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the BCrypt cost for this machine: the highest cost whose hash still takes at most the
+ * target time, but never below {@code minStrength}. Each cost step doubles the work, so one timed
+ * hash at the minimum cost is enough to extrapolate.
+ */
+final class BCryptStrengthCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+    private static final int MAX_STRENGTH = 16;
+    private static final int SAMPLES = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    static int calibrate(long targetMillis, int minStrength) {
+        // Warm up so the measurement is not dominated by class loading and interpretation
+        BCrypt.hashpw("calibration", BCrypt.gensalt(4));
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", BCrypt.gensalt(minStrength));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        long targetNanos = targetMillis * 1_000_000L;
+        int strength = minStrength;
+        long estimate = best;
+        while (strength < MAX_STRENGTH && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            strength++;
+        }
+
+        log.info("BCrypt cost {} (~{} ms per hash, target {} ms)", strength, estimate / 1_000_000, targetMillis);
+        return strength;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Verifier for exactly the compact HS512 tokens {@link JwtUtil} issues: header {@code {"alg":"HS512"}}
+ * and a flat payload of {@code jti}, {@code sub}, {@code exp}, {@code iat}, {@code permissions},
+ * {@code uid} and {@code ver}. Each thread reuses its own {@link Mac} and decode buffers, the
+ * signature is compared in constant time and the payload is scanned without building a claims map.
+ *
+ * <p>{@link #verify(String)} returns {@code null} for anything it does not handle itself (other
+ * headers or claims, escaped strings, a bad signature, an expired token), so the caller can fall
+ * back to JJWT, which then produces the usual result or exception.
+ */
+public class CompactJwsVerifier {
+
+    private static final String ALGORITHM = "HmacSHA512";
+    /** Base64url of {@code {"alg":"HS512"}}, the header JJWT writes for HS512 tokens. */
+    private static final String HS512_HEADER = "eyJhbGciOiJIUzUxMiJ9";
+    private static final int SIGNATURE_LENGTH = 64;
+
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final byte[] key;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(this::newScratch);
+
+    public CompactJwsVerifier(byte[] key) {
+        this.key = key.clone();
+    }
+
+    public VerifiedToken verify(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot != HS512_HEADER.length() || secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) return null;
+        if (!token.startsWith(HS512_HEADER)) return null;
+
+        Scratch buffers = scratch.get();
+
+        // Signing input is ASCII, so it can be fed to the Mac without a charset encoder
+        byte[] input = buffers.ensureInput(secondDot);
+        for (int i = 0; i < secondDot; i++) {
+            char c = token.charAt(i);
+            if (c > 127) return null;
+            input[i] = (byte) c;
+        }
+        buffers.mac.update(input, 0, secondDot);
+        try {
+            buffers.mac.doFinal(buffers.expected, 0);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+
+        if (decode(token, secondDot + 1, token.length(), buffers.actual) != SIGNATURE_LENGTH) return null;
+        int difference = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            difference |= buffers.expected[i] ^ buffers.actual[i];
+        }
+        if (difference != 0) return null;
+
+        byte[] payload = buffers.ensurePayload((secondDot - firstDot) * 3 / 4 + 3);
+        int length = decode(token, firstDot + 1, secondDot, payload);
+        if (length < 0) return null;
+
+        VerifiedToken verified = new PayloadReader(payload, length).read();
+        if (verified == null || verified.isExpired(System.currentTimeMillis())) return null;
+        return verified;
+    }
+
+    /**
+     * Decodes unpadded base64url {@code source[from, to)} into {@code target}; returns the number of
+     * bytes written, or -1 when the input is not valid or does not fit.
+     */
+    private static int decode(String source, int from, int to, byte[] target) {
+        int length = to - from;
+        if (length % 4 == 1) return -1;
+        int size = length / 4 * 3 + Math.max(0, length % 4 - 1);
+        if (size > target.length) return -1;
+
+        int out = 0;
+        int bits = 0;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) return -1;
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                target[out++] = (byte) (bits >> 16);
+                target[out++] = (byte) (bits >> 8);
+                target[out++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count == 3) {
+            target[out++] = (byte) (bits >> 10);
+            target[out++] = (byte) (bits >> 2);
+        } else if (count == 2) {
+            target[out++] = (byte) (bits >> 4);
+        }
+        return out;
+    }
+
+    private Scratch newScratch() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return new Scratch(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA512 is not available", e);
+        }
+    }
+
+    private static final class Scratch {
+        final Mac mac;
+        final byte[] expected = new byte[SIGNATURE_LENGTH];
+        final byte[] actual = new byte[SIGNATURE_LENGTH];
+        byte[] input = new byte[512];
+        byte[] payload = new byte[512];
+
+        Scratch(Mac mac) {
+            this.mac = mac;
+        }
+
+        byte[] ensureInput(int size) {
+            if (input.length < size) input = new byte[Math.max(size, input.length * 2)];
+            return input;
+        }
+
+        byte[] ensurePayload(int size) {
+            if (payload.length < size) payload = new byte[Math.max(size, payload.length * 2)];
+            return payload;
+        }
+    }
+
+    /**
+     * Minimal reader for the flat JSON object JwtUtil writes. Any construct outside that shape makes
+     * {@link #read()} return {@code null}.
+     */
+    private static final class PayloadReader {
+        private final byte[] json;
+        private final int end;
+        private int position;
+
+        PayloadReader(byte[] json, int end) {
+            this.json = json;
+            this.end = end;
+        }
+
+        VerifiedToken read() {
+            String tokenId = null;
+            String subject = null;
+            Long userId = null;
+            Integer userVersion = null;
+            long expiresAtSeconds = -1;
+            List<String> permissions = null;
+
+            if (!consume('{')) return null;
+            if (consume('}')) return null;
+            do {
+                String name = readString();
+                if (name == null || !consume(':')) return null;
+                switch (name) {
+                    case "jti":
+                        tokenId = readString();
+                        if (tokenId == null) return null;
+                        break;
+                    case "sub":
+                        subject = readString();
+                        if (subject == null) return null;
+                        break;
+                    case "exp":
+                        expiresAtSeconds = readNumber();
+                        if (expiresAtSeconds < 0) return null;
+                        break;
+                    case "iat":
+                        if (readNumber() < 0) return null;
+                        break;
+                    case "uid":
+                        long uid = readNumber();
+                        if (uid < 0) return null;
+                        userId = uid;
+                        break;
+                    case "ver":
+                        long ver = readNumber();
+                        if (ver < 0 || ver > Integer.MAX_VALUE) return null;
+                        userVersion = (int) ver;
+                        break;
+                    case "permissions":
+                        permissions = readStringArray();
+                        if (permissions == null) return null;
+                        break;
+                    default:
+                        return null;
+                }
+            } while (consume(','));
+            if (!consume('}') || position != end) return null;
+            if (subject == null || expiresAtSeconds < 0) return null;
+
+            if (permissions == null) permissions = new ArrayList<>(0);
+            List<GrantedAuthority> authorities = new ArrayList<>(permissions.size());
+            for (String permission : permissions) {
+                authorities.add(new SimpleGrantedAuthority(permission));
+            }
+            return new VerifiedToken(tokenId, subject, userId, userVersion, permissions, authorities, expiresAtSeconds * 1000);
+        }
+
+        private boolean consume(char expected) {
+            if (position < end && json[position] == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private String readString() {
+            if (!consume('"')) return null;
+            int start = position;
+            while (position < end) {
+                byte b = json[position];
+                if (b == '"') {
+                    String value = new String(json, start, position - start, StandardCharsets.UTF_8);
+                    position++;
+                    return value;
+                }
+                if (b == '\\' || (b >= 0 && b < 0x20)) return null;
+                position++;
+            }
+            return null;
+        }
+
+        /** Non-negative integer, or -1. */
+        private long readNumber() {
+            int start = position;
+            long value = 0;
+            while (position < end && json[position] >= '0' && json[position] <= '9') {
+                if (position - start >= 18) return -1;
+                value = value * 10 + (json[position] - '0');
+                position++;
+            }
+            return position == start ? -1 : value;
+        }
+
+        private List<String> readStringArray() {
+            if (!consume('[')) return null;
+            List<String> values = new ArrayList<>();
+            if (consume(']')) return values;
+            do {
+                String value = readString();
+                if (value == null) return null;
+                values.add(value);
+            } while (consume(','));
+            return consume(']') ? values : null;
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package com.example.security;
 
+import com.example.services.TokenRevocationService;
 import com.example.services.UserService;
-import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 
 import javax.servlet.FilterChain;
@@ -17,51 +18,66 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean statelessAuth;
+    private final Timer authenticationTimer;
 
-    public JwtFilter(UserService userService, JwtUtil jwtUtil) {
+    public JwtFilter(UserService userService, JwtUtil jwtUtil, TokenRevocationService tokenRevocationService,
+                     @Value("${jwt.stateless:false}") boolean statelessAuth, MeterRegistry meterRegistry) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.statelessAuth = statelessAuth;
+        this.authenticationTimer = Timer.builder("auth.jwt.filter")
+                .description("Token verification and principal resolution in JwtFilter")
+                .register(meterRegistry);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Timer.Sample sample = Timer.start();
+        authenticate(request);
+        sample.stop(authenticationTimer);
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
-        String jwt = null;
+        VerifiedToken token = null;
         String email = null;
 
         if(authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
-            email = jwtUtil.extractEmail(jwt);
+            token = jwtUtil.verify(authHeader.substring(7));
+            email = token.getSubject();
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            UserDetails userDetails = this.userService.loadUserByUsername(email);
+        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenRevocationService.isRevoked(token)) {
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            UserDetails userDetails = loadPrincipal(token);
 
-                Claims claims = jwtUtil.extractAllClaims(jwt);
-                List<String> permissions = claims.get("permissions", List.class);
-
-                // Convert permissions to GrantedAuthorities
-                List<GrantedAuthority> authorities = permissions.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+            if (userDetails != null && jwtUtil.validateToken(token, userDetails)) {
 
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, authorities);
+                        userDetails, null, token.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
         }
-        filterChain.doFilter(request, response);
+    }
+
+    private UserDetails loadPrincipal(VerifiedToken token) {
+        // Tokens issued before user ids were embedded still go through the database
+        if (!statelessAuth || token.getUserId() == null) {
+            return this.userService.loadUserByUsername(token.getSubject());
+        }
+        return new AuthenticatedUser(token.getUserId(), token.getUserVersion(), token.getSubject(), null, token.getAuthorities());
     }
 }
@@ -3,18 +3,34 @@ package com.example.security;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
+    public static final long TOKEN_VALIDITY_MILLIS = 1000 * 60 * 60 * 10;
+
     private final String SECRET_KEY = "secret";
 
+    private final VerifiedTokenCache verifiedTokenCache;
+    // JJWT treats a String signing key as Base64, so decode it the same way
+    private final CompactJwsVerifier compactVerifier = new CompactJwsVerifier(TextCodec.BASE64.decode(SECRET_KEY));
+
+    public JwtUtil(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
     public Claims extractAllClaims(String token) {
         return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody();
     }
@@ -27,19 +43,60 @@ public class JwtUtil {
         return extractAllClaims(token).getExpiration().before(new Date());
     }
 
+    /**
+     * Parses and verifies the token at most once while it stays cached; throws the same
+     * {@link io.jsonwebtoken.JwtException}s as {@link #extractAllClaims(String)} for invalid tokens.
+     * Tokens in the shape this class issues are checked by {@link CompactJwsVerifier}, anything
+     * else (including invalid tokens) goes through JJWT.
+     */
+    @SuppressWarnings("unchecked")
+    public VerifiedToken verify(String token) {
+        VerifiedToken verified = verifiedTokenCache.get(token);
+        if (verified != null) return verified;
+
+        verified = compactVerifier.verify(token);
+        if (verified != null) {
+            verifiedTokenCache.put(token, verified);
+            return verified;
+        }
+
+        Claims claims = extractAllClaims(token);
+        List<String> permissions = claims.get("permissions", List.class);
+        if (permissions == null) permissions = Collections.emptyList();
+
+        List<GrantedAuthority> authorities = permissions.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        verified = new VerifiedToken(claims.getId(), claims.getSubject(), claims.get("uid", Long.class), claims.get("ver", Integer.class), permissions, authorities, claims.getExpiration().getTime());
+        verifiedTokenCache.put(token, verified);
+        return verified;
+    }
+
     public String generateToken(String email, List<String> permissions){
+        return generateToken(null, null, email, permissions);
+    }
+
+    public String generateToken(Long userId, Integer userVersion, String email, List<String> permissions){
         Map<String, Object> claims = new HashMap<>();
         claims.put("permissions", permissions);
+        if (userId != null) claims.put("uid", userId);
+        if (userVersion != null) claims.put("ver", userVersion);
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
+                .setExpiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY_MILLIS))
                 .signWith(SignatureAlgorithm.HS512, SECRET_KEY).compact();
     }
 
     public boolean validateToken(String token, UserDetails user) {
         return (user.getUsername().equals(extractEmail(token)) && !isTokenExpired(token));
     }
+
+    public boolean validateToken(VerifiedToken token, UserDetails user) {
+        return user.getUsername().equals(token.getSubject()) && !token.isExpired(System.currentTimeMillis());
+    }
 }
@@ -2,6 +2,7 @@ package com.example.security;
 
 import com.example.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -40,14 +41,22 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .disable()
                 .authorizeRequests()
                 .antMatchers("/auth").permitAll()
+                .antMatchers("/actuator/health").permitAll()
+                // Rejection counters, queue depths and auth timings are for operators only; the scraper
+                // authenticates with the token of a user holding can_read_metrics
+                .antMatchers("/actuator/**").hasAuthority("can_read_metrics")
                 .antMatchers(HttpMethod.POST, "/users").hasAuthority("can_create_users")
                 .antMatchers(HttpMethod.GET, "/users").hasAuthority("can_read_users")
                 .antMatchers(HttpMethod.PUT, "/users/**").hasAuthority("can_update_users")
                 .antMatchers(HttpMethod.DELETE, "/users/**").hasAuthority("can_delete_users")
                 .antMatchers(HttpMethod.GET, "/vacuums/search").hasAuthority("can_search_vacuum")
+                .antMatchers(HttpMethod.GET, "/vacuums/*/transitions", "/vacuums/*/uptime").hasAuthority("can_search_vacuum")
                 .antMatchers(HttpMethod.PUT, "/vacuums/START/**").hasAuthority("can_start_vacuum")
                 .antMatchers(HttpMethod.PUT, "/vacuums/STOP/**").hasAuthority("can_stop_vacuum")
                 .antMatchers(HttpMethod.PUT, "/vacuums/DISCHARGE/**").hasAuthority("can_discharge_vacuum")
+                .antMatchers(HttpMethod.PUT, "/vacuums/bulk/START").hasAuthority("can_start_vacuum")
+                .antMatchers(HttpMethod.PUT, "/vacuums/bulk/STOP").hasAuthority("can_stop_vacuum")
+                .antMatchers(HttpMethod.PUT, "/vacuums/bulk/DISCHARGE").hasAuthority("can_discharge_vacuum")
                 .antMatchers(HttpMethod.POST, "/vacuums").hasAuthority("can_add_vacuum")
                 .antMatchers(HttpMethod.DELETE, "/vacuums").hasAuthority("can_remove_vacuum")
 //                .antMatchers("/users").permitAll()
@@ -64,8 +73,16 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         return super.authenticationManager();
     }
 
+    /**
+     * BCrypt with an explicit {@code auth.bcrypt.strength}, or else the cost calibrated at startup to
+     * take about {@code auth.bcrypt.target-hash-ms}. Stored hashes with a lower cost are re-hashed on
+     * the next successful login through {@link UserService#updatePassword}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:0}") int strength,
+                                           @Value("${auth.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${auth.bcrypt.target-hash-ms:250}") long targetHashMillis) {
+        if (strength <= 0) strength = BCryptStrengthCalibrator.calibrate(targetHashMillis, minStrength);
+        return new BCryptPasswordEncoder(strength);
     }
 }
@@ -0,0 +1,37 @@
+package com.example.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of parsing and verifying a JWT once: the token id, the subject, the user id and version it
+ * was issued for, the permissions (already mapped to authorities) and the expiration instant.
+ */
+@Getter
+public class VerifiedToken {
+
+    private final String tokenId;
+    private final String subject;
+    private final Long userId;
+    private final Integer userVersion;
+    private final List<String> permissions;
+    private final List<GrantedAuthority> authorities;
+    private final long expiresAtMillis;
+
+    public VerifiedToken(String tokenId, String subject, Long userId, Integer userVersion, List<String> permissions, List<GrantedAuthority> authorities, long expiresAtMillis) {
+        this.tokenId = tokenId;
+        this.subject = subject;
+        this.userId = userId;
+        this.userVersion = userVersion;
+        this.permissions = Collections.unmodifiableList(permissions);
+        this.authorities = Collections.unmodifiableList(authorities);
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
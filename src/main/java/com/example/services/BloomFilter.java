@@ -0,0 +1,85 @@
+package com.example.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over long and string keys, which live in separate hash domains. Bits can
+ * be added concurrently with lookups; there is no removal, the owner rebuilds a fresh filter instead.
+ */
+class BloomFilter {
+
+    private static final long LONG_SEED = 0x9E3779B97F4A7C15L;
+    private static final long STRING_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Sized for {@code expectedInsertions} at roughly a 1% false-positive rate.
+     */
+    BloomFilter(int expectedInsertions) {
+        int insertions = Math.max(expectedInsertions, 64);
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(0.01) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * Math.log(2)));
+    }
+
+    void add(long key) {
+        set(mix(key ^ LONG_SEED));
+    }
+
+    void add(String key) {
+        set(hash(key));
+    }
+
+    boolean mightContain(long key) {
+        return test(mix(key ^ LONG_SEED));
+    }
+
+    boolean mightContain(String key) {
+        return test(hash(key));
+    }
+
+    private void set(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean test(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long hash(String key) {
+        long hash = STRING_SEED;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
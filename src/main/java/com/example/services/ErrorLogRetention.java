@@ -0,0 +1,187 @@
+package com.example.services;
+
+import com.example.models.dto.ErrorCountRow;
+import com.example.models.entities.ErrorMessageRollup;
+import com.example.repositories.ErrorMessageRepository;
+import com.example.repositories.ErrorMessageRollupRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps {@code error_messages} bounded. Each completed hour is first rolled up into
+ * {@code error_message_rollups} (counts per vacuum, action and message); rows older than
+ * {@code retention} are then deleted in batches of {@code purgeBatchSize} ids read from the
+ * timestamp index, one short transaction per batch, so no lock is held for long. Rows are never
+ * purged before their hour has been rolled up.
+ *
+ * <p>An hour is rolled up once {@code graceMillis} have passed after it, leaving time for the
+ * write-behind {@link ErrorLogWriter} to insert its last messages. Every instance runs the jobs;
+ * the rollup's unique key lets only one of them write an hour.
+ *
+ * <p>A run rolls up at most {@code rollupMaxHours} hours and deletes at most {@code purgeMaxBatches}
+ * batches; a larger backlog, such as weeks of rows on the first run, is worked off over the following
+ * runs instead of holding the shared {@code @Scheduled} thread for minutes.
+ */
+@Component
+public class ErrorLogRetention implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorLogRetention.class);
+
+    private static final LocalDateTime LOG_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ErrorMessageRepository errorMessageRepository;
+    private final ErrorMessageRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int purgeBatchSize;
+    private final int purgeMaxBatches;
+    private final long purgePauseMillis;
+    private final long graceMillis;
+    private final int rollupMaxHours;
+    private final LongAdder purged = new LongAdder();
+    private final LongAdder rolledUp = new LongAdder();
+
+    // Start of the first hour not rolled up yet; null until known
+    private volatile LocalDateTime rolledUpUntil;
+
+    public ErrorLogRetention(ErrorMessageRepository errorMessageRepository, ErrorMessageRollupRepository rollupRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${error-log.retention-days:30}") long retentionDays,
+                             @Value("${error-log.purge-batch-size:1000}") int purgeBatchSize,
+                             @Value("${error-log.purge-max-batches:100}") int purgeMaxBatches,
+                             @Value("${error-log.purge-pause-ms:50}") long purgePauseMillis,
+                             @Value("${error-log.rollup-grace-ms:60000}") long graceMillis,
+                             @Value("${error-log.rollup-max-hours:24}") int rollupMaxHours) {
+        this.errorMessageRepository = errorMessageRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = Duration.ofDays(retentionDays);
+        this.purgeBatchSize = purgeBatchSize;
+        this.purgeMaxBatches = purgeMaxBatches;
+        this.purgePauseMillis = purgePauseMillis;
+        this.graceMillis = graceMillis;
+        this.rollupMaxHours = rollupMaxHours;
+    }
+
+    @Scheduled(initialDelayString = "${error-log.rollup-interval-ms:60000}", fixedDelayString = "${error-log.rollup-interval-ms:60000}")
+    public void rollUp() {
+        rollUp(LocalDateTime.now().minus(Duration.ofMillis(graceMillis)).truncatedTo(ChronoUnit.HOURS));
+    }
+
+    /**
+     * Rolls up the hours that end at or before {@code until}, at most {@code rollupMaxHours} of them;
+     * returns the number of rollup rows written.
+     */
+    public int rollUp(LocalDateTime until) {
+        LocalDateTime hour = rolledUpUntil;
+        if (hour == null) {
+            LocalDateTime last = rollupRepository.findLastPeriodStart();
+            hour = last != null ? last.plusHours(1) : null;
+        }
+
+        int written = 0;
+        for (int hours = 0; ; hours++) {
+            // Jump over hours without messages
+            LocalDateTime first = errorMessageRepository.findFirstTimestampFrom(hour != null ? hour : LOG_START);
+            if (first == null) break;
+            LocalDateTime firstHour = first.truncatedTo(ChronoUnit.HOURS);
+            if (firstHour.plusHours(1).isAfter(until)) break;
+            // The next run continues from rolledUpUntil
+            if (hours == rollupMaxHours) return written;
+
+            written += rollUpHour(firstHour);
+            hour = firstHour.plusHours(1);
+            rolledUpUntil = hour;
+        }
+        // Nothing else was logged before until
+        if (hour == null || hour.isBefore(until)) rolledUpUntil = until;
+        return written;
+    }
+
+    private int rollUpHour(LocalDateTime hour) {
+        try {
+            Integer written = transactionTemplate.execute(status -> {
+                List<ErrorMessageRollup> rollups = new ArrayList<>();
+                for (ErrorCountRow row : errorMessageRepository.countBetween(hour, hour.plusHours(1))) {
+                    ErrorMessageRollup rollup = new ErrorMessageRollup();
+                    rollup.setPeriodStart(hour);
+                    rollup.setVacuumId(row.getVacuumId());
+                    rollup.setAction(row.getAction());
+                    rollup.setMessage(row.getMessage());
+                    rollup.setErrorCount(row.getErrorCount());
+                    rollups.add(rollup);
+                }
+                rollupRepository.saveAll(rollups);
+                return rollups.size();
+            });
+            int count = written == null ? 0 : written;
+            rolledUp.add(count);
+            return count;
+        } catch (DataIntegrityViolationException e) {
+            log.info("Error messages of {} were already rolled up by another instance", hour);
+            return 0;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${error-log.purge-interval-ms:300000}", fixedDelayString = "${error-log.purge-interval-ms:300000}")
+    public void purge() {
+        purge(LocalDateTime.now().minus(retention));
+    }
+
+    /**
+     * Deletes the messages logged before {@code cutoff} whose hour has been rolled up, at most
+     * {@code purgeMaxBatches} batches of them; returns the number of rows deleted.
+     */
+    public long purge(LocalDateTime cutoff) {
+        LocalDateTime rolledUp = rolledUpUntil;
+        if (rolledUp == null) return 0;
+        LocalDateTime limit = cutoff.isBefore(rolledUp) ? cutoff : rolledUp;
+
+        long deleted = 0;
+        for (int batches = 1; batches <= purgeMaxBatches; batches++) {
+            List<Long> ids = errorMessageRepository.findIdsBefore(limit, PageRequest.of(0, purgeBatchSize));
+            if (ids.isEmpty()) break;
+            Integer count = transactionTemplate.execute(status -> errorMessageRepository.deleteByIdIn(ids));
+            deleted += count == null ? 0 : count;
+            purged.add(count == null ? 0 : count);
+            if (ids.size() < purgeBatchSize) break;
+            if (batches < purgeMaxBatches && !pause()) break;
+        }
+        if (deleted > 0) log.info("Purged {} error messages logged before {}", deleted, limit);
+        return deleted;
+    }
+
+    private boolean pause() {
+        if (purgePauseMillis <= 0) return true;
+        try {
+            Thread.sleep(purgePauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("error_log.purged", purged, LongAdder::sum).register(registry);
+        FunctionCounter.builder("error_log.rolled_up", rolledUp, LongAdder::sum).register(registry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.services;
+
+import com.example.models.entities.ErrorMessage;
+import com.example.repositories.ErrorMessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+
+/**
+ * Write-behind persistence for error messages. Callers only enqueue; a background thread inserts
+ * the queued messages in JDBC batches once {@code batchSize} messages are waiting or
+ * {@code flushIntervalMillis} passed. When the queue is full new messages are dropped and counted.
+ */
+@Component
+public class ErrorLogWriter implements MeterBinder {
+
+    private final WriteBehindQueue<ErrorMessage> queue;
+
+    // Takes the seeded sequence so no batch is written before error_messages_seq is above max(id)
+    public ErrorLogWriter(ErrorMessageRepository errorMessageRepository, ErrorMessageSequence errorMessageSequence,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${error-log.queue-capacity:10000}") int queueCapacity,
+                          @Value("${error-log.batch-size:100}") int batchSize,
+                          @Value("${error-log.flush-interval-ms:500}") long flushIntervalMillis) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new WriteBehindQueue<>("error_log", queueCapacity, batchSize, flushIntervalMillis,
+                batch -> transactionTemplate.executeWithoutResult(status -> errorMessageRepository.saveAll(batch)));
+    }
+
+    @PostConstruct
+    public void start() {
+        queue.start();
+    }
+
+    /**
+     * Queues the message for insertion; returns {@code false} if it was dropped because the queue is full.
+     */
+    public boolean enqueue(ErrorMessage errorMessage) {
+        if (errorMessage.getTimestamp() == null) errorMessage.setTimestamp(LocalDateTime.now());
+        return queue.offer(errorMessage);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        queue.stop();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        queue.bindTo(registry);
+    }
+
+    public int getQueueDepth() {
+        return queue.getDepth();
+    }
+
+    public long getWritten() {
+        return queue.getWritten();
+    }
+
+    public long getDropped() {
+        return queue.getDropped();
+    }
+
+    public long getFailed() {
+        return queue.getFailed();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.services;
+
+import com.example.models.entities.ErrorMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Seeds the pooled {@code error_messages_seq} generator above the ids already in {@code error_messages}.
+ * On MySQL Hibernate emulates the sequence with a table whose {@code next_val} starts at 1, so on a
+ * database that used IDENTITY ids before, the first batches would collide with existing rows. The
+ * value is only ever raised, so instances that start later do not hand out ids twice.
+ *
+ * <p>Other databases (H2 in tests and load tests) start empty and keep the generated sequence as is.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ErrorMessageSequence {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorMessageSequence.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ErrorMessageSequence(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void seed() {
+        if (!isMySql()) return;
+
+        // A pooled block ends at next_val, so the whole next block must lie above max(id)
+        long next = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from error_messages", Long.class) + ErrorMessage.ID_ALLOCATION_SIZE + 1;
+        int updated = jdbcTemplate.update("update error_messages_seq set next_val = greatest(next_val, ?)", next);
+        if (updated == 0) {
+            jdbcTemplate.update("insert into error_messages_seq (next_val) values (?)", next);
+        }
+        log.info("Error message ids continue from at least {}", next - ErrorMessage.ID_ALLOCATION_SIZE);
+    }
+
+    private boolean isMySql() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+            return "MySQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Cannot determine the database, error_messages_seq is not seeded", e);
+            return false;
+        }
+    }
+}
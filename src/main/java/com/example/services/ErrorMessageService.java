@@ -1,20 +1,35 @@
 package com.example.services;
 
+import com.example.models.dto.CursorPage;
+import com.example.models.dto.ErrorSummary;
+import com.example.models.dto.PageCursor;
 import com.example.models.entities.ErrorMessage;
+import com.example.models.enums.VacuumAction;
 import com.example.repositories.ErrorMessageRepository;
+import com.example.repositories.ErrorMessageRollupRepository;
 import com.example.repositories.MyService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class ErrorMessageService implements MyService<ErrorMessage, Long> {
 
     private final ErrorMessageRepository errorMessageRepository;
+    private final ErrorMessageRollupRepository errorMessageRollupRepository;
+    private final NdjsonExporter ndjsonExporter;
 
-    public ErrorMessageService(ErrorMessageRepository errorMessageRepository) {
+    public ErrorMessageService(ErrorMessageRepository errorMessageRepository,
+                               ErrorMessageRollupRepository errorMessageRollupRepository, NdjsonExporter ndjsonExporter) {
         this.errorMessageRepository = errorMessageRepository;
+        this.errorMessageRollupRepository = errorMessageRollupRepository;
+        this.ndjsonExporter = ndjsonExporter;
     }
 
     @Override
@@ -27,11 +42,43 @@ public class ErrorMessageService implements MyService<ErrorMessage, Long> {
         return errorMessageRepository.findById(errorMessageId);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<ErrorMessage> findAll() {
         return (List<ErrorMessage>) errorMessageRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<ErrorMessage> findPageByVacuumOwner(Long userId, VacuumAction action, LocalDateTime from,
+                                                          LocalDateTime to, PageCursor after, int limit) {
+        // Fetch one extra row to know whether another page follows
+        List<ErrorMessage> errorMessages = errorMessageRepository.findPageByVacuumOwner(userId, action, from, to,
+                after == null ? null : after.getTimestamp(), after == null ? null : after.getId(), PageRequest.of(0, limit + 1));
+        if (errorMessages.size() <= limit) {
+            return new CursorPage<>(errorMessages, null);
+        }
+
+        List<ErrorMessage> page = errorMessages.subList(0, limit);
+        ErrorMessage last = page.get(limit - 1);
+        return new CursorPage<>(page, new PageCursor(last.getTimestamp(), last.getId()).encode());
+    }
+
+    /**
+     * Error counts per vacuum, action and message over the hours starting in [{@code from}, {@code to}),
+     * read from the hourly rollup so the summary survives the purge of the raw messages.
+     */
+    @Transactional(readOnly = true)
+    public List<ErrorSummary> summarizeByVacuumOwner(Long userId, VacuumAction action, LocalDateTime from, LocalDateTime to) {
+        return errorMessageRollupRepository.summarizeByVacuumOwner(userId, action, from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportByVacuumOwner(Long userId, OutputStream outputStream) {
+        try (Stream<ErrorMessage> errorMessages = errorMessageRepository.streamByVacuumOwner(userId)) {
+            return ndjsonExporter.write(errorMessages, outputStream);
+        }
+    }
+
     @Override
     public void deleteById(Long errorMessageId) {
         errorMessageRepository.deleteById(errorMessageId);
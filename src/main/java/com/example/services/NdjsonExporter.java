@@ -0,0 +1,49 @@
+package com.example.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes entities one JSON document per line as they are read from a repository stream. Every
+ * entity is detached once written so the persistence context does not grow with the result.
+ * Must be called inside the (read-only) transaction that opened the stream.
+ */
+@Component
+public class NdjsonExporter {
+
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public NdjsonExporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public long write(Stream<?> rows, OutputStream outputStream) {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            Iterator<?> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object row = iterator.next();
+                generator.writeObject(row);
+                generator.writeRaw('\n');
+                entityManager.detach(row);
+                count++;
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export interrupted after " + count + " rows", e);
+        }
+        return count;
+    }
+}
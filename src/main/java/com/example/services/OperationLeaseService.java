@@ -0,0 +1,156 @@
+package com.example.services;
+
+import com.example.repositories.OperationLeaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Operation in progress" guard shared by every instance through the {@code operation_leases} table.
+ * A lease row per vacuum names the owning node and an expiry; it is taken with a conditional update,
+ * renewed in the background while this node holds it and can be taken over by any node once it
+ * expired, so the leases of a node that died are reclaimed after {@code leaseTtlMillis}.
+ * Every lease change commits in its own transaction so other nodes see it immediately; callers take
+ * and release leases outside their own transactions so that a command never needs a second pooled
+ * connection.
+ *
+ * <p>Renewal runs on its own thread rather than on the shared {@code @Scheduled} scheduler: a slow
+ * job there must not delay it past the TTL, or another node would take over a vacuum whose
+ * transition is still running here. It still needs a pooled connection, so the pool has to leave
+ * room for it.
+ */
+@Service
+public class OperationLeaseService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OperationLeaseService.class);
+
+    private final OperationLeaseRepository operationLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final long leaseTtlMillis;
+    private final long renewIntervalMillis;
+    private final Set<Long> held = ConcurrentHashMap.newKeySet();
+    private final ScheduledThreadPoolExecutor renewer;
+
+    public OperationLeaseService(OperationLeaseRepository operationLeaseRepository, PlatformTransactionManager transactionManager,
+                                 @Value("${lease.node-id:}") String nodeId,
+                                 @Value("${lease.ttl-ms:30000}") long leaseTtlMillis,
+                                 @Value("${lease.renew-interval-ms:10000}") long renewIntervalMillis) {
+        this.operationLeaseRepository = operationLeaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId.isEmpty() ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID() : nodeId;
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.renewIntervalMillis = renewIntervalMillis;
+        this.renewer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void startRenewal() {
+        renewer.scheduleWithFixedDelay(() -> {
+            try {
+                renewHeld();
+            } catch (RuntimeException e) {
+                // A failed run must not cancel the schedule; the next one renews with a fresh expiry
+                log.warn("Failed to renew operation leases of node {}", nodeId, e);
+            }
+        }, renewIntervalMillis, renewIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean tryAcquire(Long vacuumId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusNanos(leaseTtlMillis * 1_000_000L);
+
+        Integer updated = transactionTemplate.execute(status -> operationLeaseRepository.acquire(vacuumId, nodeId, expiresAt, now));
+        boolean acquired = updated != null && updated == 1;
+
+        if (!acquired && !operationLeaseRepository.existsById(vacuumId)) {
+            try {
+                transactionTemplate.execute(status -> operationLeaseRepository.insert(vacuumId, nodeId, expiresAt));
+                acquired = true;
+            } catch (DataIntegrityViolationException e) {
+                // Another node inserted the row first and holds the lease
+                acquired = false;
+            }
+        }
+
+        if (acquired) held.add(vacuumId);
+        return acquired;
+    }
+
+    public void release(Long vacuumId) {
+        if (!held.remove(vacuumId)) return;
+        try {
+            transactionTemplate.execute(status -> operationLeaseRepository.release(vacuumId, nodeId));
+        } catch (RuntimeException e) {
+            // The lease simply expires if it cannot be released now
+            log.warn("Failed to release lease for vacuum {}", vacuumId, e);
+        }
+    }
+
+    public void renewHeld() {
+        if (held.isEmpty()) return;
+        List<Long> vacuumIds = new ArrayList<>(held);
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(leaseTtlMillis * 1_000_000L);
+
+        Integer renewed = transactionTemplate.execute(status -> operationLeaseRepository.renew(nodeId, vacuumIds, expiresAt));
+        if (renewed != null && renewed < vacuumIds.size()) {
+            log.warn("Node {} lost {} of {} operation leases", nodeId, vacuumIds.size() - renewed, vacuumIds.size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        renewer.shutdownNow();
+        releaseAll();
+    }
+
+    public void releaseAll() {
+        for (Long vacuumId : new ArrayList<>(held)) {
+            release(vacuumId);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("vacuum.operations.pending", held, Set::size)
+                .description("Vacuum operation leases held by this node")
+                .register(registry);
+    }
+
+    public boolean isHeld(Long vacuumId) {
+        return held.contains(vacuumId);
+    }
+
+    public int getHeldCount() {
+        return held.size();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Records {@code jdk.VirtualThreadPinned} JFR events, i.e. virtual threads that blocked while holding
+ * a monitor ({@code synchronized}) or inside a native frame and so kept their carrier thread. Events
+ * are grouped by the first application frame on the stack and the top hot spots are logged every
+ * {@code virtual-threads.pinning.report-ms}.
+ *
+ * <p>The JFR streaming API is used reflectively so that the class still loads on Java 8.
+ */
+public class PinnedThreadMonitor implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.example.";
+    private static final int REPORTED_HOT_SPOTS = 10;
+
+    private final Duration threshold;
+    private final ConcurrentHashMap<String, HotSpot> hotSpots = new ConcurrentHashMap<>();
+    private final LongAdder pinned = new LongAdder();
+    private AutoCloseable stream;
+
+    public PinnedThreadMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        try {
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Object recordingStream = streamClass.getConstructor().newInstance();
+            Object settings = streamClass.getMethod("enable", String.class).invoke(recordingStream, PINNED_EVENT);
+            Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+            settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, threshold);
+            settingsClass.getMethod("withStackTrace").invoke(settings);
+            Consumer<Object> handler = this::onPinned;
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(recordingStream, PINNED_EVENT, handler);
+            streamClass.getMethod("startAsync").invoke(recordingStream);
+            stream = (AutoCloseable) recordingStream;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Pinned virtual thread events are not available on this JVM", e);
+        }
+    }
+
+    private void onPinned(Object event) {
+        try {
+            Duration duration = (Duration) invoke(event, "getDuration");
+            Object stackTrace = invoke(event, "getStackTrace");
+            List<?> frames = stackTrace == null ? null : (List<?>) invoke(stackTrace, "getFrames");
+            pinned.increment();
+            hotSpots.computeIfAbsent(hotSpot(frames), key -> new HotSpot()).record(duration);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Cannot read pinned virtual thread event", e);
+        }
+    }
+
+    /**
+     * The first application frame, or the first frame outside the JDK when the application does not
+     * appear on the stack (e.g. a driver or pool blocking inside its own monitor).
+     */
+    private static String hotSpot(List<?> frames) throws ReflectiveOperationException {
+        if (frames == null || frames.isEmpty()) return "unknown";
+        String firstOutsideJdk = null;
+        for (Object frame : frames) {
+            Object method = invoke(frame, "getMethod");
+            String type = (String) invoke(invoke(method, "getType"), "getName");
+            String location = type + "." + invoke(method, "getName") + ":" + invoke(frame, "getLineNumber");
+            if (type.startsWith(APPLICATION_PACKAGE)) return location;
+            if (firstOutsideJdk == null && !type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                firstOutsideJdk = location;
+            }
+        }
+        return firstOutsideJdk != null ? firstOutsideJdk : "unknown";
+    }
+
+    private static Object invoke(Object target, String name) throws ReflectiveOperationException {
+        Method method = target.getClass().getMethod(name);
+        return method.invoke(target);
+    }
+
+    @Scheduled(initialDelayString = "${virtual-threads.pinning.report-ms:60000}", fixedDelayString = "${virtual-threads.pinning.report-ms:60000}")
+    public void report() {
+        List<Map.Entry<String, HotSpot>> entries = new ArrayList<>(hotSpots.entrySet());
+        entries.removeIf(entry -> entry.getValue().count.sum() == 0);
+        if (entries.isEmpty()) return;
+        entries.sort((a, b) -> Long.compare(b.getValue().nanos.sum(), a.getValue().nanos.sum()));
+
+        StringBuilder message = new StringBuilder("Virtual threads pinned to their carrier, by total time:");
+        for (Map.Entry<String, HotSpot> entry : entries.subList(0, Math.min(REPORTED_HOT_SPOTS, entries.size()))) {
+            HotSpot hotSpot = entry.getValue();
+            message.append(System.lineSeparator()).append("  ").append(entry.getKey())
+                    .append(" count=").append(hotSpot.count.sum())
+                    .append(" total=").append(hotSpot.nanos.sum() / 1_000_000).append("ms")
+                    .append(" max=").append(hotSpot.maxNanos / 1_000_000).append("ms");
+        }
+        log.warn(message.toString());
+    }
+
+    public Map<String, Long> getHotSpotCounts() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        hotSpots.forEach((location, hotSpot) -> counts.put(location, hotSpot.count.sum()));
+        return counts;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jvm.threads.virtual.pinned", pinned, LongAdder::sum).register(registry);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (stream != null) stream.close();
+    }
+
+    private static final class HotSpot {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private volatile long maxNanos;
+
+        private void record(Duration duration) {
+            long value = duration == null ? 0 : duration.toNanos();
+            count.increment();
+            nanos.add(value);
+            if (value > maxNanos) maxNanos = value;
+        }
+    }
+}
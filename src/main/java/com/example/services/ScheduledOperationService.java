@@ -0,0 +1,261 @@
+package com.example.services;
+
+import com.example.models.entities.ScheduledOperation;
+import com.example.models.enums.ScheduledOperationStatus;
+import com.example.models.enums.VacuumAction;
+import com.example.repositories.ScheduledOperationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durable scheduler for vacuum operations. Operations are stored in {@code scheduled_operations};
+ * only the ones due within the next {@code lookaheadMillis} are loaded, in time-ordered batches,
+ * into a priority queue of compact entries (at most {@code maxQueued} at a time), so pending
+ * operations further out cost no heap.
+ * A fired operation is claimed with a conditional update, which makes firing at most once even
+ * if the same row was queued twice.
+ * The queue is guarded by a {@link ReentrantLock} rather than a monitor because loading holds it
+ * across a query, which would pin a virtual thread waiting in {@link #schedule} to its carrier.
+ *
+ * <p>Due operations are claimed and run on a bounded pool of {@code fireThreads}, not on the shared
+ * {@code @Scheduled} thread, so a burst of them does not hold up the other scheduled jobs. When the
+ * pool's queue is full the rest stay in the priority queue until the next dispatch.
+ *
+ * <p>Only this node's own {@link #schedule} calls reach its queue directly. Rows that another
+ * instance inserts into the window already loaded here are found by the full reload every
+ * {@code rescanMillis}; the reload also picks up operations left pending by a node that died.
+ */
+@Service
+public class ScheduledOperationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledOperationService.class);
+
+    // Length of the result column
+    private static final int MAX_RESULT_LENGTH = 255;
+
+    private final ScheduledOperationRepository scheduledOperationRepository;
+    private final VacuumService vacuumService;
+    private final TransactionTemplate transactionTemplate;
+    private final long lookaheadMillis;
+    private final int batchSize;
+    private final int maxQueued;
+    private final long rescanMillis;
+    private final ThreadPoolExecutor fireExecutor;
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<DueOperation> queue = new PriorityQueue<>();
+    // Keyset position (scheduledAt, id) up to which pending operations have been loaded into the queue;
+    // an id of Long.MAX_VALUE means everything up to loadedTime is loaded
+    private LocalDateTime loadedTime;
+    private long loadedId;
+    private long rescannedAtMillis;
+
+    public ScheduledOperationService(ScheduledOperationRepository scheduledOperationRepository, VacuumService vacuumService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${scheduler.lookahead-ms:60000}") long lookaheadMillis,
+                                     @Value("${scheduler.batch-size:500}") int batchSize,
+                                     @Value("${scheduler.max-queued:10000}") int maxQueued,
+                                     @Value("${scheduler.rescan-ms:60000}") long rescanMillis,
+                                     @Value("${scheduler.fire-threads:4}") int fireThreads,
+                                     @Value("${scheduler.fire-queue-capacity:100}") int fireQueueCapacity) {
+        this.scheduledOperationRepository = scheduledOperationRepository;
+        this.vacuumService = vacuumService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lookaheadMillis = lookaheadMillis;
+        this.batchSize = batchSize;
+        this.maxQueued = maxQueued;
+        this.rescanMillis = rescanMillis;
+        this.fireExecutor = new ThreadPoolExecutor(fireThreads, fireThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fireQueueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-operation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public ScheduledOperation schedule(Long vacuumId, VacuumAction action, Long userId, LocalDateTime scheduledAt) {
+        ScheduledOperation operation = new ScheduledOperation();
+        operation.setVacuumId(vacuumId);
+        operation.setAction(action);
+        operation.setUserId(userId);
+        operation.setScheduledAt(scheduledAt);
+        operation.setStatus(ScheduledOperationStatus.PENDING);
+        ScheduledOperation saved = scheduledOperationRepository.save(operation);
+
+        // Rows after the loaded window are picked up by the next load
+        lock.lock();
+        try {
+            if (isLoaded(saved)) {
+                queue.add(new DueOperation(saved));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return saved;
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.poll-interval-ms:1000}")
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = toEpochMillis(now);
+
+        lock.lock();
+        try {
+            if (nowMillis - rescannedAtMillis >= rescanMillis) {
+                // Reload the whole window; operations queued twice are still fired once by the claim
+                queue.clear();
+                loadedTime = null;
+                loadedId = 0;
+                rescannedAtMillis = nowMillis;
+            }
+            boolean windowLoaded = loadedTime != null && loadedId == Long.MAX_VALUE;
+            if (windowLoaded ? loadedTime.isBefore(now.plus(Duration.ofMillis(lookaheadMillis / 2)))
+                    : queue.size() < maxQueued / 2) {
+                load(now.plus(Duration.ofMillis(lookaheadMillis)));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        while (true) {
+            DueOperation due;
+            lock.lock();
+            try {
+                if (queue.isEmpty() || queue.peek().dueAtMillis > nowMillis) return;
+                due = queue.poll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                fireExecutor.execute(() -> fire(due));
+            } catch (RejectedExecutionException e) {
+                // The pool is busy; the operation is still pending and goes out with a later dispatch
+                lock.lock();
+                try {
+                    queue.add(due);
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    private void load(LocalDateTime until) {
+        while (queue.size() < maxQueued) {
+            List<ScheduledOperation> batch = scheduledOperationRepository.findBatch(ScheduledOperationStatus.PENDING, until,
+                    loadedTime, loadedId, PageRequest.of(0, Math.min(batchSize, maxQueued - queue.size())));
+            for (ScheduledOperation operation : batch) {
+                queue.add(new DueOperation(operation));
+            }
+            if (batch.isEmpty() || queue.size() < maxQueued && batch.size() < batchSize) {
+                loadedTime = until;
+                loadedId = Long.MAX_VALUE;
+                return;
+            }
+            ScheduledOperation last = batch.get(batch.size() - 1);
+            loadedTime = last.getScheduledAt();
+            loadedId = last.getId();
+        }
+    }
+
+    private boolean isLoaded(ScheduledOperation operation) {
+        if (loadedTime == null) return false;
+        int byTime = operation.getScheduledAt().compareTo(loadedTime);
+        return byTime < 0 || byTime == 0 && operation.getId() <= loadedId;
+    }
+
+    private void fire(DueOperation due) {
+        try {
+            Integer claimed = transactionTemplate.execute(status -> scheduledOperationRepository.transition(due.id,
+                    ScheduledOperationStatus.PENDING, ScheduledOperationStatus.COMPLETED, LocalDateTime.now()));
+            if (claimed == null || claimed == 0) return;
+        } catch (RuntimeException e) {
+            log.error("Scheduled operation {} could not be claimed", due.id, e);
+            return;
+        }
+
+        try {
+            ResponseEntity<?> response = vacuumService.updateVacuumStatus(due.vacuumId, due.action, due.userId);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                recordFailure(due.id, response.getBody() != null ? response.getBody().toString() : response.getStatusCode().toString());
+            }
+        } catch (RuntimeException e) {
+            log.error("Scheduled operation {} failed", due.id, e);
+            // Already claimed as COMPLETED, so the failure has to be recorded explicitly
+            recordFailure(due.id, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        }
+    }
+
+    private void recordFailure(long id, String result) {
+        String truncated = result.length() > MAX_RESULT_LENGTH ? result.substring(0, MAX_RESULT_LENGTH) : result;
+        try {
+            transactionTemplate.execute(status -> scheduledOperationRepository.recordResult(id,
+                    ScheduledOperationStatus.FAILED, truncated));
+        } catch (RuntimeException e) {
+            log.error("Failure of scheduled operation {} could not be recorded", id, e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // Operations not claimed yet stay pending in the database
+        fireExecutor.shutdownNow();
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class DueOperation implements Comparable<DueOperation> {
+        private final long id;
+        private final long dueAtMillis;
+        private final Long vacuumId;
+        private final Long userId;
+        private final VacuumAction action;
+
+        private DueOperation(ScheduledOperation operation) {
+            this.id = operation.getId();
+            this.dueAtMillis = toEpochMillis(operation.getScheduledAt());
+            this.vacuumId = operation.getVacuumId();
+            this.userId = operation.getUserId();
+            this.action = operation.getAction();
+        }
+
+        @Override
+        public int compareTo(DueOperation other) {
+            int byTime = Long.compare(dueAtMillis, other.dueAtMillis);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+}
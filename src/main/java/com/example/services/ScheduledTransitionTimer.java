@@ -0,0 +1,64 @@
+package com.example.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TransitionTimer} backed by one small {@link ScheduledThreadPoolExecutor}. Pending
+ * transitions only cost a queued task; threads are busy just for the short database write of a step.
+ *
+ * <p>With {@code virtual-threads.enabled} the pool threads only hand due tasks over to a new virtual
+ * thread each, so steps waiting for a database connection do not hold up the timer.
+ */
+@Component
+public class ScheduledTransitionTimer implements TransitionTimer, MeterBinder {
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final ExecutorService stepExecutor;
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    public ScheduledTransitionTimer(@Value("${vacuum.transitions.threads:4}") int threads,
+                                    @Value("${virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "vacuum-transition-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.stepExecutor = virtualThreads ? VirtualThreads.newThreadPerTaskExecutor("vacuum-transition-v-") : null;
+    }
+
+    @Override
+    public void schedule(Runnable task, long delayMillis) {
+        if (stepExecutor == null) {
+            executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            executor.schedule(() -> stepExecutor.execute(task), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "vacuum.transitions", Collections.emptyList()).bindTo(registry);
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+        if (stepExecutor != null) stepExecutor.shutdown();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.services;
+
+import com.example.models.entities.TokenRevocation;
+import com.example.repositories.TokenRevocationRepository;
+import com.example.security.JwtUtil;
+import com.example.security.VerifiedToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revoked tokens, persisted in {@code token_revocations} and mirrored in memory: the exact sets of
+ * revoked token ids and per-user minimum versions, fronted by a {@link BloomFilter} so that a token
+ * that was not revoked is cleared with a few bit probes. The filter cannot forget entries, so it is
+ * rebuilt from the table on {@code auth.revocation.refresh-ms}, dropping expired revocations and
+ * picking up those made by other instances.
+ */
+@Service
+public class TokenRevocationService implements MeterBinder {
+
+    private static final int DELETED = Integer.MAX_VALUE;
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final int expectedRevocations;
+
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder revokedRequests = new LongAdder();
+
+    public TokenRevocationService(TokenRevocationRepository tokenRevocationRepository,
+                                  @Value("${auth.revocation.expected-size:10000}") int expectedRevocations) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.filter = new BloomFilter(expectedRevocations);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        BloomFilter current = filter;
+        boolean tokenCandidate = token.getTokenId() != null && current.mightContain(token.getTokenId());
+        boolean userCandidate = token.getUserId() != null && current.mightContain(token.getUserId());
+        if (!tokenCandidate && !userCandidate) return false;
+
+        filterHits.increment();
+        long now = System.currentTimeMillis();
+        boolean revoked = false;
+        if (tokenCandidate) {
+            Long expiresAt = revokedTokens.get(token.getTokenId());
+            revoked = expiresAt != null && expiresAt > now;
+        }
+        if (!revoked && userCandidate) {
+            UserRevocation revocation = revokedUsers.get(token.getUserId());
+            revoked = revocation != null && revocation.expiresAt > now
+                    && (token.getUserVersion() == null || token.getUserVersion() < revocation.minVersion);
+        }
+        if (revoked) revokedRequests.increment();
+        return revoked;
+    }
+
+    /**
+     * Revokes one token until it expires. Tokens without an id cannot be revoked individually.
+     */
+    @Transactional
+    public boolean revokeToken(VerifiedToken token) {
+        if (token.getTokenId() == null) return false;
+
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setTokenId(token.getTokenId());
+        revocation.setExpiresAt(toLocalDateTime(token.getExpiresAtMillis()));
+        tokenRevocationRepository.save(revocation);
+
+        afterCommit(() -> addToken(token.getTokenId(), token.getExpiresAtMillis()));
+        return true;
+    }
+
+    /**
+     * Revokes every token of the user issued for a version lower than {@code currentVersion}.
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId, Integer currentVersion) {
+        if (userId == null || currentVersion == null) return;
+        saveUserRevocation(userId, currentVersion);
+    }
+
+    /**
+     * Revokes every token of a deleted user.
+     */
+    @Transactional
+    public void revokeUser(Long userId) {
+        if (userId == null) return;
+        saveUserRevocation(userId, DELETED);
+    }
+
+    private void saveUserRevocation(Long userId, int minVersion) {
+        // Any token issued before now has expired by then
+        long expiresAt = System.currentTimeMillis() + JwtUtil.TOKEN_VALIDITY_MILLIS;
+
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(userId);
+        revocation.setMinUserVersion(minVersion);
+        revocation.setExpiresAt(toLocalDateTime(expiresAt));
+        tokenRevocationRepository.save(revocation);
+
+        afterCommit(() -> addUser(userId, minVersion, expiresAt));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${auth.revocation.refresh-ms:60000}", fixedDelayString = "${auth.revocation.refresh-ms:60000}")
+    @Transactional
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        tokenRevocationRepository.deleteExpired(now);
+        List<TokenRevocation> active = tokenRevocationRepository.findByExpiresAtAfter(now);
+
+        // Entries revoked locally while loading are kept: the new filter is built from the maps,
+        // which are only ever added to here
+        for (TokenRevocation revocation : active) {
+            long expiresAt = toEpochMillis(revocation.getExpiresAt());
+            if (revocation.getTokenId() != null) {
+                revokedTokens.merge(revocation.getTokenId(), expiresAt, Math::max);
+            } else if (revocation.getUserId() != null && revocation.getMinUserVersion() != null) {
+                revokedUsers.merge(revocation.getUserId(), new UserRevocation(revocation.getMinUserVersion(), expiresAt), UserRevocation::merge);
+            }
+        }
+        long nowMillis = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+        revokedUsers.values().removeIf(revocation -> revocation.expiresAt <= nowMillis);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, 2 * (revokedTokens.size() + revokedUsers.size())));
+        revokedTokens.keySet().forEach(rebuilt::add);
+        revokedUsers.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+
+        // A revocation that raced with the swap may only be in the old filter
+        revokedTokens.keySet().forEach(rebuilt::add);
+        revokedUsers.keySet().forEach(rebuilt::add);
+    }
+
+    private void addToken(String tokenId, long expiresAt) {
+        revokedTokens.merge(tokenId, expiresAt, Math::max);
+        filter.add(tokenId);
+    }
+
+    private void addUser(Long userId, int minVersion, long expiresAt) {
+        revokedUsers.merge(userId, new UserRevocation(minVersion, expiresAt), UserRevocation::merge);
+        filter.add(userId);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.revocations", this, service -> service.revokedTokens.size() + service.revokedUsers.size())
+                .register(registry);
+        FunctionCounter.builder("auth.revocations.filter.hits", filterHits, LongAdder::sum).register(registry);
+        FunctionCounter.builder("auth.revocations.rejected", revokedRequests, LongAdder::sum).register(registry);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class UserRevocation {
+        private final int minVersion;
+        private final long expiresAt;
+
+        private UserRevocation(int minVersion, long expiresAt) {
+            this.minVersion = minVersion;
+            this.expiresAt = expiresAt;
+        }
+
+        private static UserRevocation merge(UserRevocation current, UserRevocation added) {
+            return new UserRevocation(Math.max(current.minVersion, added.minVersion), Math.max(current.expiresAt, added.expiresAt));
+        }
+    }
+}
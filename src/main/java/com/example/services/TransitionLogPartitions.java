@@ -0,0 +1,125 @@
+package com.example.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Monthly range partitions of {@code vacuum_transitions} on MySQL: partition {@code pYYYYMM} holds the
+ * rows before the first day of the following month and {@code pmax} catches anything later. The
+ * table is partitioned on first start, {@code partitionsAhead} future months are kept split off
+ * {@code pmax}, and with {@code retentionMonths} above zero whole months older than that are dropped,
+ * which is much cheaper than deleting rows. Uptime keeps working for dropped months through the
+ * snapshots.
+ *
+ * <p>Other databases (H2 in tests and load tests) keep the table unpartitioned.
+ */
+@Component
+public class TransitionLogPartitions {
+
+    private static final Logger log = LoggerFactory.getLogger(TransitionLogPartitions.class);
+
+    private static final String TABLE = "vacuum_transitions";
+    private static final String CATCH_ALL = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int partitionsAhead;
+    private final int retentionMonths;
+
+    public TransitionLogPartitions(JdbcTemplate jdbcTemplate,
+                                   @Value("${vacuum.transition-log.partitions-ahead:3}") int partitionsAhead,
+                                   @Value("${vacuum.transition-log.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionsAhead = partitionsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${vacuum.transition-log.partition-check-ms:86400000}", fixedDelayString = "${vacuum.transition-log.partition-check-ms:86400000}")
+    public void maintain() {
+        if (!isMySql()) return;
+
+        YearMonth current = YearMonth.now();
+        List<String> partitions = jdbcTemplate.queryForList(
+                "select partition_name from information_schema.partitions " +
+                        "where table_schema = database() and table_name = ? and partition_name is not null " +
+                        "order by partition_ordinal_position", String.class, TABLE);
+
+        if (partitions.isEmpty()) {
+            StringBuilder definitions = new StringBuilder();
+            for (int i = 0; i <= partitionsAhead; i++) {
+                definitions.append(partition(current.plusMonths(i))).append(", ");
+            }
+            definitions.append(catchAll());
+            execute("alter table " + TABLE + " partition by range columns(occurred_at) (" + definitions + ")");
+            return;
+        }
+
+        YearMonth last = partitions.stream()
+                .filter(name -> !CATCH_ALL.equals(name))
+                .map(TransitionLogPartitions::month)
+                .filter(Objects::nonNull)
+                .max(YearMonth::compareTo)
+                .orElse(current.minusMonths(1));
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(current.plusMonths(partitionsAhead)); month = month.plusMonths(1)) {
+            execute("alter table " + TABLE + " reorganize partition " + CATCH_ALL + " into (" + partition(month) + ", " + catchAll() + ")");
+        }
+
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (String name : partitions) {
+                YearMonth month = month(name);
+                if (month != null && month.isBefore(oldestKept)) {
+                    execute("alter table " + TABLE + " drop partition " + name);
+                }
+            }
+        }
+    }
+
+    private void execute(String ddl) {
+        log.info("Transition log partitions: {}", ddl);
+        jdbcTemplate.execute(ddl);
+    }
+
+    private static String partition(YearMonth month) {
+        LocalDate end = month.plusMonths(1).atDay(1);
+        return "partition " + month.format(PARTITION_NAME) + " values less than ('" + end + " 00:00:00')";
+    }
+
+    private static String catchAll() {
+        return "partition " + CATCH_ALL + " values less than (maxvalue)";
+    }
+
+    private static YearMonth month(String partitionName) {
+        try {
+            return YearMonth.parse(partitionName, PARTITION_NAME);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private boolean isMySql() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+            return "MySQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Cannot determine the database, transition log partitions are not maintained", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.services;
+
+import com.example.models.entities.VacuumTransition;
+
+/**
+ * Receives every step the {@link VacuumStateMachine} applied. Implementations must not block the caller.
+ */
+public interface TransitionRecorder {
+
+    void record(VacuumTransition transition);
+}
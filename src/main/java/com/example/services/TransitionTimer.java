@@ -0,0 +1,9 @@
+package com.example.services;
+
+/**
+ * Runs a task once after a delay. Implementations must not block the caller.
+ */
+public interface TransitionTimer {
+
+    void schedule(Runnable task, long delayMillis);
+}
@@ -1,33 +1,48 @@
 package com.example.services;
 
+import com.example.models.dto.UserPermissionRow;
+import com.example.models.dto.UserSummary;
 import com.example.models.dto.UserUpdateDto;
 import com.example.models.entities.User;
 import com.example.repositories.MyService;
 import com.example.repositories.UserRepository;
+import com.example.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
-public class UserService implements MyService<User, Long>, UserDetailsService {
+public class UserService implements MyService<User, Long>, UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -48,38 +63,78 @@ public class UserService implements MyService<User, Long>, UserDetailsService {
     @Override
     public void deleteById(Long userId) {
         userRepository.deleteById(userId);
+        tokenRevocationService.revokeUser(userId);
     }
 
+    /**
+     * @param expectedVersion when not null, the update is refused with 412 unless the user still has
+     *                        this version
+     * @throws OptimisticLockException when the user is changed concurrently; it is left to propagate so
+     *                                 that the transaction is rolled back rather than marked rollback-only
+     */
     @Transactional
-    public ResponseEntity<?> updateUser(UserUpdateDto userUpdateDto) {
-        try {
-            Optional<User> optionalUser = findById(userUpdateDto.getId());
+    public ResponseEntity<?> updateUser(UserUpdateDto userUpdateDto, Integer expectedVersion) {
+        Optional<User> optionalUser = findById(userUpdateDto.getId());
+
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
 
-            if (!optionalUser.isPresent()) {
-                return ResponseEntity.notFound().build();
-            }
+        User user = optionalUser.get();
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        user.setFirstName(userUpdateDto.getFirstName());
+        user.setLastName(userUpdateDto.getLastName());
+        user.setEmail(userUpdateDto.getEmail());
+        user.setPermissions(userUpdateDto.getPermissions());
+
+        User saved = save(user);
+        // The @Version column is only incremented on flush; tokens issued before this version are revoked
+        entityManager.flush();
+        tokenRevocationService.revokeAllForUser(saved.getId(), saved.getVersion());
+        return ResponseEntity.ok(saved);
+    }
 
-            User user = optionalUser.get();
-            user.setFirstName(userUpdateDto.getFirstName());
-            user.setLastName(userUpdateDto.getLastName());
-            user.setEmail(userUpdateDto.getEmail());
-            user.setPermissions(userUpdateDto.getPermissions());
+    /**
+     * All users with their permissions, read in one joined query instead of one permissions select
+     * per user.
+     */
+    @Transactional(readOnly = true)
+    public List<UserSummary> findAllSummaries() {
+        return toSummaries(userRepository.findAllPermissionRows());
+    }
 
-            return ResponseEntity.ok(save(user));
-        } catch (OptimisticLockException ole ) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Update failed due to concurrent modification.");
+    @Transactional(readOnly = true)
+    public Optional<UserSummary> findSummaryById(Long userId) {
+        List<UserSummary> summaries = toSummaries(userRepository.findPermissionRowsById(userId));
+        return summaries.isEmpty() ? Optional.empty() : Optional.of(summaries.get(0));
+    }
+
+    private static List<UserSummary> toSummaries(List<UserPermissionRow> rows) {
+        Map<Long, UserSummary> summaries = new LinkedHashMap<>();
+        for (UserPermissionRow row : rows) {
+            UserSummary summary = summaries.computeIfAbsent(row.getId(), id ->
+                    new UserSummary(id, row.getFirstName(), row.getLastName(), row.getEmail(), row.getVersion()));
+            if (row.getPermission() != null) summary.getPermissions().add(row.getPermission());
         }
+        return new ArrayList<>(summaries.values());
     }
 
     public boolean emailExists(String email) {
         return userRepository.findByEmail(email).isPresent();
     }
 
+    /**
+     * Authentication lookup, deliberately outside a read-only service transaction: the repository's own
+     * transaction stays on the primary, so a new user or a changed permission is seen at once.
+     */
     public User findByEmail(String email) {
         Optional<User> optionalUser = userRepository.findByEmail(email);
         return optionalUser.orElse(null);
     }
 
+    // Like findByEmail, read from the primary rather than a possibly lagging replica
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         Optional<User> user = this.userRepository.findByEmail(email);
@@ -88,6 +143,27 @@ public class UserService implements MyService<User, Long>, UserDetailsService {
                 .map(permission -> new SimpleGrantedAuthority(permission.name()))
                 .collect(Collectors.toList());
 
-        return new org.springframework.security.core.userdetails.User(user.get().getEmail(), user.get().getPasswordHash(), permissions);
+        return new AuthenticatedUser(user.get().getId(), user.get().getVersion(), user.get().getEmail(), user.get().getPasswordHash(), permissions);
+    }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored hash uses a lower
+     * BCrypt cost than the configured one. The version bump does not revoke anything, so tokens
+     * issued before the re-hash stay valid.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPasswordHash) {
+        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
+        if (!optionalUser.isPresent()) return userDetails;
+
+        User user = optionalUser.get();
+        user.setPasswordHash(newPasswordHash);
+        try {
+            user = save(user);
+        } catch (OptimisticLockingFailureException e) {
+            // Changed concurrently; the hash will be upgraded on a later login
+            return userDetails;
+        }
+        return new AuthenticatedUser(user.getId(), user.getVersion(), user.getEmail(), user.getPasswordHash(), userDetails.getAuthorities());
     }
 }
@@ -0,0 +1,193 @@
+package com.example.services;
+
+import com.example.models.dto.VacuumStatusEvent;
+import com.example.models.entities.Vacuum;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans vacuum status changes out to Server-Sent Events subscribers of the vacuum's owner.
+ * Publishing never blocks: each subscriber has a bounded buffer holding only the latest event per
+ * vacuum, so a slow client receives coalesced state instead of every intermediate change, and a
+ * small sender pool writes to the clients.
+ */
+@Component
+public class VacuumEventHub implements MeterBinder {
+
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final LongAdder dropped = new LongAdder();
+
+    public VacuumEventHub(@Value("${vacuum.events.sender-threads:2}") int senderThreads,
+                          @Value("${vacuum.events.buffer-size:256}") int bufferSize,
+                          @Value("${vacuum.events.timeout-ms:1800000}") long timeoutMillis) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "vacuum-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+
+        subscribers.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    public void publish(Vacuum vacuum) {
+        Set<Subscriber> userSubscribers = subscribers.get(vacuum.getAddedBy());
+        if (userSubscribers == null || userSubscribers.isEmpty()) return;
+
+        VacuumStatusEvent event = VacuumStatusEvent.of(vacuum);
+        for (Subscriber subscriber : userSubscribers) {
+            subscriber.offer(event);
+            signal(subscriber);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vacuum.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.heartbeatDue = true;
+                signal(subscriber);
+            }
+        }
+    }
+
+    private void signal(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                List<VacuumStatusEvent> events;
+                boolean heartbeat;
+                synchronized (subscriber) {
+                    events = new ArrayList<>(subscriber.pending.values());
+                    subscriber.pending.clear();
+                    heartbeat = subscriber.heartbeatDue;
+                    subscriber.heartbeatDue = false;
+                }
+                if (events.isEmpty() && !heartbeat) break;
+
+                for (VacuumStatusEvent event : events) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name("vacuum")
+                            .id(event.getId() + ":" + event.getVersion())
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+                if (heartbeat) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            remove(subscriber);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+
+        // Events published while the last batch was being written
+        if (subscriber.hasWork()) signal(subscriber);
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (userId, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+        subscribers.clear();
+        sender.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("vacuum.events.subscribers", this, VacuumEventHub::getSubscriberCount).register(registry);
+        FunctionCounter.builder("vacuum.events.dropped", dropped, LongAdder::sum).register(registry);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        // Latest event per vacuum id, in order of first change
+        private final LinkedHashMap<Long, VacuumStatusEvent> pending = new LinkedHashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(VacuumStatusEvent event) {
+            VacuumStatusEvent current = pending.get(event.getId());
+            if (current != null && current.getVersion() != null && event.getVersion() != null
+                    && current.getVersion() > event.getVersion()) return;
+
+            if (!pending.containsKey(event.getId()) && pending.size() >= bufferSize) {
+                Iterator<Long> oldest = pending.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped.increment();
+            }
+            pending.put(event.getId(), event);
+        }
+
+        private synchronized boolean hasWork() {
+            return !pending.isEmpty() || heartbeatDue;
+        }
+    }
+}
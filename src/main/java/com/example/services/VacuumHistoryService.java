@@ -0,0 +1,69 @@
+package com.example.services;
+
+import com.example.models.dto.CursorPage;
+import com.example.models.dto.PageCursor;
+import com.example.models.dto.VacuumUptime;
+import com.example.models.entities.VacuumSnapshot;
+import com.example.models.entities.VacuumTransition;
+import com.example.repositories.VacuumSnapshotRepository;
+import com.example.repositories.VacuumTransitionRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads of the vacuum transition log. Uptime is computed from the latest snapshot before each end of
+ * the range plus the transitions logged after it, so a query reads at most one snapshot interval of
+ * the log per end however long the history is.
+ */
+@Service
+public class VacuumHistoryService {
+
+    private final VacuumTransitionRepository transitionRepository;
+    private final VacuumSnapshotRepository snapshotRepository;
+
+    public VacuumHistoryService(VacuumTransitionRepository transitionRepository, VacuumSnapshotRepository snapshotRepository) {
+        this.transitionRepository = transitionRepository;
+        this.snapshotRepository = snapshotRepository;
+    }
+
+    /**
+     * Transitions of the vacuum with {@code from < occurredAt <= to}, oldest first, continued after
+     * the cursor's timestamp when given.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<VacuumTransition> findTimeline(Long vacuumId, LocalDateTime from, LocalDateTime to, PageCursor after, int limit) {
+        LocalDateTime start = after != null && after.getTimestamp().isAfter(from) ? after.getTimestamp() : from;
+        // Fetch one extra row to know whether another page follows
+        List<VacuumTransition> transitions = transitionRepository.findBetween(vacuumId, start, to, PageRequest.of(0, limit + 1));
+        if (transitions.size() <= limit) {
+            return new CursorPage<>(transitions, null);
+        }
+
+        List<VacuumTransition> page = transitions.subList(0, limit);
+        VacuumTransition last = page.get(limit - 1);
+        return new CursorPage<>(page, new PageCursor(last.getOccurredAt(), last.getVacuumId()).encode());
+    }
+
+    @Transactional(readOnly = true)
+    public VacuumUptime findUptime(Long vacuumId, LocalDateTime from, LocalDateTime to) {
+        VacuumStateFold atFrom = stateAt(vacuumId, from);
+        VacuumStateFold atTo = stateAt(vacuumId, to);
+        return new VacuumUptime(vacuumId, from, to, atTo.getRunningMillis() - atFrom.getRunningMillis(),
+                atTo.getTransitions() - atFrom.getTransitions(), atTo.getStatus());
+    }
+
+    private VacuumStateFold stateAt(Long vacuumId, LocalDateTime time) {
+        List<VacuumSnapshot> snapshots = snapshotRepository.findLatest(vacuumId, time, PageRequest.of(0, 1));
+        VacuumStateFold fold = snapshots.isEmpty() ? VacuumStateFold.empty(vacuumId) : VacuumStateFold.from(snapshots.get(0));
+        LocalDateTime after = snapshots.isEmpty() ? VacuumTransitionLog.LOG_START : snapshots.get(0).getTakenAt();
+
+        transitionRepository.findBetween(vacuumId, after, time, Pageable.unpaged()).forEach(fold::apply);
+        fold.advanceTo(time);
+        return fold;
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.services;
+
+import com.example.models.dto.PageCursor;
+import com.example.models.dto.VacuumSummary;
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process projection of every vacuum, kept as compact immutable records in a long-keyed map with
+ * secondary indexes by owner (ordered by creation time, matching the search keyset) and by status.
+ * Changes are applied only if their {@code @Version} is not older than the stored one, so late or
+ * out-of-order writes cannot roll a vacuum back. Reads return detached {@link Vacuum} copies.
+ */
+public class VacuumReadModel {
+
+    private static final Comparator<Record> BY_CREATED_AT = Comparator
+            .comparing((Record record) -> record.createdAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(record -> record.id);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongObjectHashMap<Record> byId;
+    private final LongObjectHashMap<NavigableSet<Record>> byOwner;
+    private final EnumMap<Status, LongObjectHashMap<Record>> byStatus = new EnumMap<>(Status.class);
+
+    public VacuumReadModel(int expectedSize) {
+        this.byId = new LongObjectHashMap<>(expectedSize);
+        this.byOwner = new LongObjectHashMap<>(Math.max(16, expectedSize / 16));
+        for (Status status : Status.values()) {
+            byStatus.put(status, new LongObjectHashMap<>(Math.max(16, expectedSize / Status.values().length)));
+        }
+    }
+
+    /**
+     * @return whether the vacuum was new to the model or newer than the version it held
+     */
+    public boolean apply(Vacuum vacuum) {
+        if (vacuum.getId() == null) return false;
+        Record record = new Record(vacuum);
+
+        lock.writeLock().lock();
+        try {
+            Record current = byId.get(record.id);
+            if (current != null && current.version > record.version) return false;
+            if (current != null) unindex(current);
+
+            byId.put(record.id, record);
+            index(record);
+            return current == null || current.version < record.version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Record current = byId.remove(id);
+            if (current != null) unindex(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            byId.clear();
+            byOwner.clear();
+            byStatus.values().forEach(LongObjectHashMap::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Vacuum findById(long id) {
+        lock.readLock().lock();
+        try {
+            Record record = byId.get(id);
+            return record == null ? null : record.toVacuum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Vacuum> findAll() {
+        lock.readLock().lock();
+        try {
+            return toVacuums(byId.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<VacuumSummary> findAllSummaries() {
+        lock.readLock().lock();
+        try {
+            List<VacuumSummary> summaries = new ArrayList<>(byId.size());
+            for (Record record : byId.values()) {
+                summaries.add(record.toSummary());
+            }
+            return summaries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Vacuum> findAllByAddedBy(long userId) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Record> owned = byOwner.get(userId);
+            return owned == null ? new ArrayList<>() : toVacuums(owned);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Vacuum> findAllByStatus(Status status) {
+        lock.readLock().lock();
+        try {
+            return toVacuums(byStatus.get(status).values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same contract as {@link com.example.repositories.VacuumSearchRepository#searchOrdered}: at most
+     * {@code limit} of the user's vacuums matching the filters, in (createdAt, id) order after {@code after}.
+     * The name matches case-insensitively, as in the database.
+     */
+    public List<Vacuum> search(long userId, String name, Collection<Status> statuses,
+                               LocalDateTime createdFrom, LocalDateTime createdTo, PageCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Record> owned = byOwner.get(userId);
+            List<Vacuum> result = new ArrayList<>();
+            if (owned == null) return result;
+
+            Iterable<Record> candidates = after == null ? owned
+                    : owned.tailSet(Record.position(after.getTimestamp(), after.getId()), false);
+            for (Record record : candidates) {
+                if (createdTo != null && record.createdAt != null && record.createdAt.isAfter(createdTo)) break;
+                if (createdFrom != null && (record.createdAt == null || record.createdAt.isBefore(createdFrom))) continue;
+                if (name != null && !name.isEmpty() && (record.name == null || !containsIgnoreCase(record.name, name))) continue;
+                if (statuses != null && !statuses.isEmpty() && !statuses.contains(record.status)) continue;
+
+                result.add(record.toVacuum());
+                if (result.size() >= limit) break;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean containsIgnoreCase(String value, String part) {
+        for (int i = 0; i <= value.length() - part.length(); i++) {
+            if (value.regionMatches(true, i, part, 0, part.length())) return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Record record) {
+        NavigableSet<Record> owned = byOwner.get(record.addedBy);
+        if (owned == null) {
+            owned = new TreeSet<>(BY_CREATED_AT);
+            byOwner.put(record.addedBy, owned);
+        }
+        owned.add(record);
+        if (record.status != null) byStatus.get(record.status).put(record.id, record);
+    }
+
+    private void unindex(Record record) {
+        NavigableSet<Record> owned = byOwner.get(record.addedBy);
+        if (owned != null) {
+            owned.remove(record);
+            if (owned.isEmpty()) byOwner.remove(record.addedBy);
+        }
+        if (record.status != null) byStatus.get(record.status).remove(record.id);
+    }
+
+    private static List<Vacuum> toVacuums(Collection<Record> records) {
+        List<Vacuum> vacuums = new ArrayList<>(records.size());
+        for (Record record : records) {
+            vacuums.add(record.toVacuum());
+        }
+        return vacuums;
+    }
+
+    private static final class Record {
+        private final long id;
+        private final String name;
+        private final Status status;
+        private final long addedBy;
+        private final boolean active;
+        private final long version;
+        private final int cycle;
+        private final LocalDateTime createdAt;
+
+        private Record(Vacuum vacuum) {
+            this(vacuum.getId(), vacuum.getName(), vacuum.getStatus(),
+                    vacuum.getAddedBy() == null ? -1 : vacuum.getAddedBy(), vacuum.isActive(),
+                    vacuum.getVersion() == null ? 0 : vacuum.getVersion(), vacuum.getCycle(), vacuum.getCreatedAt());
+        }
+
+        private Record(long id, String name, Status status, long addedBy, boolean active, long version, int cycle, LocalDateTime createdAt) {
+            this.id = id;
+            this.name = name;
+            this.status = status;
+            this.addedBy = addedBy;
+            this.active = active;
+            this.version = version;
+            this.cycle = cycle;
+            this.createdAt = createdAt;
+        }
+
+        private static Record position(LocalDateTime createdAt, long id) {
+            return new Record(id, null, null, -1, false, 0, 0, createdAt);
+        }
+
+        private Vacuum toVacuum() {
+            Vacuum vacuum = new Vacuum();
+            vacuum.setId(id);
+            vacuum.setName(name);
+            vacuum.setStatus(status);
+            vacuum.setAddedBy(addedBy == -1 ? null : addedBy);
+            vacuum.setActive(active);
+            vacuum.setVersion(version);
+            vacuum.setCycle(cycle);
+            vacuum.setCreatedAt(createdAt);
+            return vacuum;
+        }
+
+        private VacuumSummary toSummary() {
+            return new VacuumSummary(id, name, status, addedBy == -1 ? null : addedBy, active, cycle, createdAt, version);
+        }
+    }
+}
@@ -1,51 +1,197 @@
 package com.example.services;
 
+import com.example.models.dto.CursorPage;
+import com.example.models.dto.PageCursor;
+import com.example.models.dto.VacuumSummary;
 import com.example.models.entities.ErrorMessage;
 import com.example.models.enums.Status;
 import com.example.models.entities.Vacuum;
 import com.example.models.enums.VacuumAction;
 import com.example.repositories.MyService;
 import com.example.repositories.VacuumRepository;
+import com.example.repositories.VacuumSpecifications;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.annotation.PreDestroy;
-import javax.persistence.OptimisticLockException;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class VacuumService implements MyService<Vacuum, Long> {
 
+    public static final String BULK_OK = "OK";
+
     private final VacuumRepository vacuumRepository;
-    private final ErrorMessageService errorMessageService;
-    private final UserService userService;
-    private final ConcurrentHashMap<Long, AtomicBoolean> pendingOperations = new ConcurrentHashMap<>();
-    private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private final ErrorLogWriter errorLogWriter;
+    private final NdjsonExporter ndjsonExporter;
+    private final OperationLeaseService operationLeaseService;
+    private final VacuumEventHub vacuumEventHub;
+    private final VacuumStateMachine stateMachine;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter optimisticLockConflicts;
+    private final boolean readModelEnabled;
+    private final int readModelExpectedSize;
+    private final Duration readModelPollOverlap;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    // Null until the first build completes, or when disabled: reads then go to the database
+    private volatile VacuumReadModel readModel;
+    // Changes made while the read model is being rebuilt, replayed onto the rebuilt model
+    private volatile Queue<Consumer<VacuumReadModel>> rebuildLog;
+    // Changes up to this time, by any instance, are in the read model
+    private volatile LocalDateTime polledUntil;
 
     @Autowired
-    public VacuumService(VacuumRepository vacuumRepository, ErrorMessageService errorMessageService, UserService userService) {
+    public VacuumService(VacuumRepository vacuumRepository, ErrorLogWriter errorLogWriter, NdjsonExporter ndjsonExporter,
+                         OperationLeaseService operationLeaseService, VacuumEventHub vacuumEventHub, TransitionTimer transitionTimer,
+                         TransitionRecorder transitionRecorder, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                         @Value("${vacuum.read-model.enabled:true}") boolean readModelEnabled,
+                         @Value("${vacuum.read-model.expected-size:1024}") int readModelExpectedSize,
+                         @Value("${vacuum.read-model.poll-overlap-ms:5000}") long readModelPollOverlapMillis) {
         this.vacuumRepository = vacuumRepository;
-        this.errorMessageService = errorMessageService;
-        this.userService = userService;
+        this.errorLogWriter = errorLogWriter;
+        this.ndjsonExporter = ndjsonExporter;
+        this.operationLeaseService = operationLeaseService;
+        this.vacuumEventHub = vacuumEventHub;
+        this.stateMachine = new VacuumStateMachine(this, transitionTimer, transitionRecorder, () -> 15000 + (long) (Math.random() * 5000));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.optimisticLockConflicts = meterRegistry.counter("optimistic_lock.conflicts", "entity", "vacuum");
+        this.readModelEnabled = readModelEnabled;
+        this.readModelExpectedSize = readModelExpectedSize;
+        this.readModelPollOverlap = Duration.ofMillis(readModelPollOverlapMillis);
+    }
+
+    /**
+     * Builds the in-memory read model from the database at startup and rebuilds it periodically as a
+     * safety net; changes made by other instances arrive sooner through {@link #pollReadModelChanges}.
+     *
+     * <p>Not a read-only transaction, so that it reads the primary: a rebuild from a lagging replica
+     * would replace newer state and move the poll watermark past changes it never saw. The streamed
+     * vacuums are still loaded read-only and detached.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${vacuum.read-model.refresh-ms:300000}", fixedDelayString = "${vacuum.read-model.refresh-ms:300000}")
+    @Transactional
+    public void rebuildReadModel() {
+        if (!readModelEnabled) return;
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        Queue<Consumer<VacuumReadModel>> changes = new ConcurrentLinkedQueue<>();
+        rebuildLog = changes;
+        VacuumReadModel rebuilt = new VacuumReadModel(Math.max(readModelExpectedSize, readModel == null ? 0 : readModel.size()));
+        try (Stream<Vacuum> vacuums = vacuumRepository.streamAll()) {
+            vacuums.forEach(vacuum -> {
+                rebuilt.apply(vacuum);
+                entityManager.detach(vacuum);
+            });
+        }
+
+        readModel = rebuilt;
+        rebuildLog = null;
+        Consumer<VacuumReadModel> change;
+        while ((change = changes.poll()) != null) {
+            change.accept(rebuilt);
+        }
+        polledUntil = startedAt;
     }
 
-    @PreDestroy
-    public void destroy() {
-        executorService.shutdown(); // Properly shutdown the executor service when the application is stopping
+    /**
+     * Applies the vacuums changed by any instance since the last poll to the read model. Each poll
+     * looks back {@code readModelPollOverlap} further, so rows whose transaction committed after an
+     * earlier poll had passed their update time, or that were stamped by a node with a slower clock,
+     * are not missed; applying a row twice is harmless.
+     *
+     * <p>Rows newer than the read model's copy are changes of other instances, which published them
+     * only to their own SSE subscribers, so they are published here as well.
+     */
+    @Scheduled(initialDelayString = "${vacuum.read-model.poll-ms:1000}", fixedDelayString = "${vacuum.read-model.poll-ms:1000}")
+    public void pollReadModelChanges() {
+        LocalDateTime since = polledUntil;
+        if (readModel == null || since == null) return;
+
+        LocalDateTime polledAt = LocalDateTime.now();
+        for (Vacuum vacuum : vacuumRepository.findUpdatedSince(since.minus(readModelPollOverlap))) {
+            Queue<Consumer<VacuumReadModel>> changes = rebuildLog;
+            if (changes != null) changes.add(model -> model.apply(vacuum));
+            if (readModel.apply(vacuum)) vacuumEventHub.publish(vacuum);
+        }
+        polledUntil = polledAt;
+    }
+
+    private void applyToReadModel(Consumer<VacuumReadModel> change) {
+        Queue<Consumer<VacuumReadModel>> changes = rebuildLog;
+        if (changes != null) changes.add(change);
+        VacuumReadModel model = readModel;
+        if (model != null) change.accept(model);
+    }
+
+    /**
+     * Runs {@code onCommit} once the current transaction has committed; outside a transaction it runs
+     * right away.
+     */
+    private static void afterCommit(Runnable onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                onCommit.run();
+            }
+        });
     }
 
     @Override
     public <S extends Vacuum> S save(S vacuum) {
-        return vacuumRepository.save(vacuum);
+        S saved;
+        try {
+            saved = vacuumRepository.save(vacuum);
+        } catch (OptimisticLockingFailureException e) {
+            optimisticLockConflicts.increment();
+            throw e;
+        }
+        applyToReadModel(model -> model.apply(saved));
+        vacuumEventHub.publish(saved);
+        return saved;
     }
 
     @Override
@@ -53,124 +199,293 @@ public class VacuumService implements MyService<Vacuum, Long> {
         return vacuumRepository.findById(vacuumId);
     }
 
+    /**
+     * Read-only lookup served from the read model when available. The returned vacuum is detached;
+     * use {@link #findById} for vacuums that are about to be modified.
+     */
+    public Optional<Vacuum> findByIdForRead(Long vacuumId) {
+        VacuumReadModel model = readModel;
+        if (model == null) return findById(vacuumId);
+        return Optional.ofNullable(model.findById(vacuumId));
+    }
+
     @Override
     public List<Vacuum> findAll() {
+        VacuumReadModel model = readModel;
+        if (model != null) return model.findAll();
         return (List<Vacuum>) vacuumRepository.findAll();
     }
 
     @Override
     public void deleteById(Long vacuumId) {
         vacuumRepository.deleteById(vacuumId);
+        applyToReadModel(model -> model.remove(vacuumId));
     }
 
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream outputStream) {
+        try (Stream<Vacuum> vacuums = vacuumRepository.streamAll()) {
+            return ndjsonExporter.write(vacuums, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<Vacuum> findAllByNameContaining(String name) {
         return vacuumRepository.findAllByNameContaining(name);
     }
 
     public List<Vacuum> findAllByAddedBy(Long userId) {
+        VacuumReadModel model = readModel;
+        if (model != null) return model.findAllByAddedBy(userId);
         return vacuumRepository.findAllByAddedBy(userId);
     }
 
     public List<Vacuum> findAllByStatus(Status status) {
+        VacuumReadModel model = readModel;
+        if (model != null) return model.findAllByStatus(status);
         return vacuumRepository.findAllByStatus(status);
     }
 
+    @Transactional(readOnly = true)
     public List<Vacuum> findAllByCreatedAtBetween(LocalDateTime startDateTime, LocalDateTime endDateTime) {
         return vacuumRepository.findAllByCreatedAtBetween(startDateTime, endDateTime);
     }
 
-    @Transactional
-    public ResponseEntity<?> updateVacuumStatus(Long id, VacuumAction action, String userEmail) {
+    public List<VacuumSummary> findAllSummaries() {
+        VacuumReadModel model = readModel;
+        if (model != null) return model.findAllSummaries();
+        return vacuumRepository.findAllSummaries();
+    }
+
+    public CursorPage<VacuumSummary> search(Long userId, String name, Collection<Status> statuses,
+                                            LocalDateTime createdFrom, LocalDateTime createdTo, PageCursor after, int limit) {
+        // Fetch one extra row to know whether another page follows
+        VacuumReadModel model = readModel;
+        List<Vacuum> vacuums = model != null
+                ? model.search(userId, name, statuses, createdFrom, createdTo, after, limit + 1)
+                : searchDatabase(userId, name, statuses, createdFrom, createdTo, after, limit + 1);
+        if (vacuums.size() <= limit) {
+            return new CursorPage<>(toSummaries(vacuums), null);
+        }
+
+        List<Vacuum> page = vacuums.subList(0, limit);
+        Vacuum last = page.get(limit - 1);
+        return new CursorPage<>(toSummaries(page), new PageCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    private static List<VacuumSummary> toSummaries(List<Vacuum> vacuums) {
+        List<VacuumSummary> summaries = new ArrayList<>(vacuums.size());
+        for (Vacuum vacuum : vacuums) {
+            summaries.add(VacuumSummary.of(vacuum));
+        }
+        return summaries;
+    }
+
+    private List<Vacuum> searchDatabase(Long userId, String name, Collection<Status> statuses,
+                                        LocalDateTime createdFrom, LocalDateTime createdTo, PageCursor after, int limit) {
+        Specification<Vacuum> specification = Specification.where(VacuumSpecifications.addedBy(userId));
+
+        if (name != null && !name.isEmpty())
+            specification = specification.and(VacuumSpecifications.nameContains(name));
+        if (statuses != null && !statuses.isEmpty())
+            specification = specification.and(VacuumSpecifications.statusIn(statuses));
+        if (createdFrom != null)
+            specification = specification.and(VacuumSpecifications.createdFrom(createdFrom));
+        if (createdTo != null)
+            specification = specification.and(VacuumSpecifications.createdTo(createdTo));
+        if (after != null)
+            specification = specification.and(VacuumSpecifications.after(after));
+
+        return vacuumRepository.searchOrdered(specification, limit);
+    }
+
+    /**
+     * Applies {@code action} to the vacuum. The operation lease is taken before the command's
+     * transaction opens and released after it ended, so a command never holds a second pooled
+     * connection for its lease.
+     */
+    public ResponseEntity<?> updateVacuumStatus(Long id, VacuumAction action, Long userId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ResponseEntity<?> response = applyVacuumCommand(id, action, userId);
+        sample.stop(meterRegistry.timer("vacuum.command", "action", action.name(), "status", String.valueOf(response.getStatusCodeValue())));
+        return response;
+    }
+
+    private ResponseEntity<?> applyVacuumCommand(Long id, VacuumAction action, Long userId) {
+        // Rejected commands never touch operation_leases
+        List<VacuumSummary> current = vacuumRepository.findSummariesByIdIn(Collections.singleton(id));
+        if (current.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Rejection rejection = rejectionReason(current.get(0), action, userId);
+        if (rejection != null)
+            return buildErrorResponse(id, rejection, action);
+        if (!startOperation(id))
+            return buildErrorResponse(id, Rejection.IN_PROGRESS, action);
+
+        boolean submitted = false;
         try {
-            Optional<Vacuum> vacuumOptional = findById(id);
+            ResponseEntity<?> response = transactionTemplate.execute(status -> {
+                Optional<Vacuum> vacuum = findById(id);
+                if (!vacuum.isPresent()) {
+                    return ResponseEntity.notFound().build();
+                }
+                // The vacuum may have changed before the lease was taken
+                Rejection changed = rejectionReason(VacuumSummary.of(vacuum.get()), action, userId);
+                if (changed != null)
+                    return buildErrorResponse(id, changed, action);
 
-            if (!vacuumOptional.isPresent()) {
-                return ResponseEntity.notFound().build();
-            }
+                begin(vacuum.get(), action, userId);
+                return ResponseEntity.ok().build();
+            });
+            submitted = response.getStatusCode().is2xxSuccessful();
+            return response;
 
-            Vacuum vacuum = vacuumOptional.get();
-            Long userId = userService.findByEmail(userEmail).getId();
-
-            if (!vacuum.getAddedBy().equals(userId))
-                return buildErrorResponse(id, "Access Denied: Vacuum doesn't exist or doesn't belong to user", action);
-            if (!vacuum.getStatus().equals(action.getRequiredStatus()))
-                return buildErrorResponse(id, "Access Denied: Can't " + action.name().toLowerCase() + " a vacuum that is not " + action.getRequiredStatus().name().toLowerCase(), action);
-            if (!vacuum.isActive())
-                return buildErrorResponse(id, "Access Denied: Vacuum is disabled", action);
-            if (!startOperation(id))
-                return buildErrorResponse(id, "Access Denied: Vacuum operation already in progress", action);
-            if (action.getNewStatus().equals(Status.RUNNING))
-                vacuum.setCycle(vacuum.getCycle() + 1);
-
-            executorService.submit(() -> updateStatus(vacuum, action, id));
-            return ResponseEntity.ok().build();
-
-        } catch (OptimisticLockException ole) {
-            return buildErrorResponse(id, "Failed to update: The vacuum status was updated by another transaction", action);
+        } catch (OptimisticLockingFailureException e) {
+            optimisticLockConflicts.increment();
+            return buildErrorResponse(id, Rejection.CONCURRENT_UPDATE, action);
         } finally {
-            endOperation(id);
+            // The operation stays pending until the state machine completes the transition
+            if (!submitted) endOperation(id);
         }
     }
 
-    private ResponseEntity<?> buildErrorResponse(Long id, String message, VacuumAction action) {
-        ErrorMessage errorMessage = new ErrorMessage();
-        errorMessage.setVacuumId(id);
-        errorMessage.setMessage(message);
-        errorMessage.setAction(action);
-        errorMessageService.save(errorMessage);
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(message);
-    }
+    /**
+     * Applies {@code action} to many vacuums with one lookup and one transaction, following the same
+     * rules as {@link #updateVacuumStatus}. Returns {@link #BULK_OK} or the rejection message per id.
+     */
+    public Map<Long, String> bulkUpdateVacuumStatus(Collection<Long> ids, VacuumAction action, Long userId) {
+        Map<Long, VacuumSummary> vacuums = new HashMap<>();
+        for (VacuumSummary vacuum : vacuumRepository.findSummariesByIdIn(new LinkedHashSet<>(ids))) {
+            vacuums.put(vacuum.getId(), vacuum);
+        }
+
+        Map<Long, String> results = new LinkedHashMap<>();
+        List<Long> leased = new ArrayList<>();
+        for (Long id : ids) {
+            if (results.containsKey(id)) continue;
+
+            VacuumSummary vacuum = vacuums.get(id);
+            Rejection rejection = vacuum == null ? Rejection.NOT_OWNED : rejectionReason(vacuum, action, userId);
+            if (rejection == null && !startOperation(id))
+                rejection = Rejection.IN_PROGRESS;
+            if (rejection != null) {
+                if (vacuum != null) logError(id, rejection, action);
+                results.put(id, rejection.message(action));
+                continue;
+            }
+
+            leased.add(id);
+            results.put(id, BULK_OK);
+        }
+        if (leased.isEmpty()) return results;
 
-    @SuppressWarnings("OptionalGetWithoutIsPresent")
-    private void updateStatus(Vacuum vacuum, VacuumAction action, Long id) {
+        Set<Long> begun = new HashSet<>();
+        boolean committed = false;
         try {
-            int totalSleepTime = 15000 + (int) (Math.random() * 5000);
-            Thread.sleep(totalSleepTime);
-            vacuum.setStatus(action.getNewStatus());
-            save(vacuum);
-
-            if (action.getNewStatus().equals(Status.STOPPED) && vacuum.getCycle() == 3) {
-                Thread.sleep(totalSleepTime);
-                vacuum = vacuumRepository.findById(vacuum.getId()).get();
-                vacuum.setStatus(Status.DISCHARGING);
-                vacuum.setCycle(0);
-                save(vacuum);
-
-                Thread.sleep(totalSleepTime);
-                vacuum = vacuumRepository.findById(vacuum.getId()).get();
-                vacuum.setStatus(Status.STOPPED);
-                save(vacuum);
-            } else if (action.getNewStatus().equals(Status.DISCHARGING)) {
-                Thread.sleep(totalSleepTime);
-                vacuum = vacuumRepository.findById(vacuum.getId()).get();
-                vacuum.setStatus(Status.STOPPED);
-                vacuum.setCycle(0);
-                save(vacuum);
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Vacuum> managed = new HashMap<>();
+                for (Vacuum vacuum : vacuumRepository.findAllById(leased)) {
+                    managed.put(vacuum.getId(), vacuum);
+                }
+                for (Long id : leased) {
+                    Vacuum vacuum = managed.get(id);
+                    // The vacuum may have changed before the lease was taken
+                    Rejection rejection = vacuum == null ? Rejection.NOT_OWNED : rejectionReason(VacuumSummary.of(vacuum), action, userId);
+                    if (rejection != null) {
+                        logError(id, rejection, action);
+                        results.put(id, rejection.message(action));
+                        continue;
+                    }
+                    begin(vacuum, action, userId);
+                    begun.add(id);
+                }
+            });
+            committed = true;
+        } catch (OptimisticLockingFailureException e) {
+            optimisticLockConflicts.increment();
+            for (Long id : begun) {
+                logError(id, Rejection.CONCURRENT_UPDATE, action);
+                results.put(id, Rejection.CONCURRENT_UPDATE.message(action));
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Thread was interrupted", e);
-        } catch (OptimisticLockException ole) {
-            throw new RuntimeException("Optimistic locking failed during updateStatus", ole);
         } finally {
-            AtomicBoolean operationStatus = pendingOperations.get(id);
-            if (operationStatus != null) {
-                operationStatus.set(false);
+            // Begun operations stay pending until the state machine completes their transitions
+            for (Long id : leased) {
+                if (!committed || !begun.contains(id)) endOperation(id);
             }
         }
+        return results;
+    }
+
+    private Rejection rejectionReason(VacuumSummary vacuum, VacuumAction action, Long userId) {
+        if (!vacuum.getAddedBy().equals(userId))
+            return Rejection.NOT_OWNED;
+        if (!vacuum.getStatus().equals(action.getRequiredStatus()))
+            return Rejection.WRONG_STATUS;
+        if (!vacuum.isActive())
+            return Rejection.DISABLED;
+        return null;
+    }
+
+    private void begin(Vacuum vacuum, VacuumAction action, Long userId) {
+        Long id = vacuum.getId();
+        if (action.getNewStatus().equals(Status.RUNNING))
+            vacuum.setCycle(vacuum.getCycle() + 1);
+
+        // Pending changes of the managed entity (and its @Version) are only final once committed, and a
+        // rolled back command must not run its transition; the caller then releases the lease
+        afterCommit(() -> {
+            applyToReadModel(model -> model.apply(vacuum));
+            long startedAt = System.nanoTime();
+            stateMachine.begin(vacuum, action, userId, () -> {
+                endOperation(id);
+                meterRegistry.timer("vacuum.transition", "action", action.name()).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            });
+        });
+    }
+
+    private ResponseEntity<?> buildErrorResponse(Long id, Rejection rejection, VacuumAction action) {
+        logError(id, rejection, action);
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(rejection.message(action));
+    }
+
+    private void logError(Long id, Rejection rejection, VacuumAction action) {
+        meterRegistry.counter("vacuum.command.rejections", "reason", rejection.name().toLowerCase(), "action", action.name()).increment();
+
+        ErrorMessage errorMessage = new ErrorMessage();
+        errorMessage.setVacuumId(id);
+        errorMessage.setMessage(rejection.message(action));
+        errorMessage.setAction(action);
+        errorLogWriter.enqueue(errorMessage);
     }
 
     private boolean startOperation(Long id) {
-        AtomicBoolean alreadyRunning = pendingOperations.computeIfAbsent(id, k -> new AtomicBoolean(false));
-        return alreadyRunning.compareAndSet(false, true);
+        return operationLeaseService.tryAcquire(id);
     }
 
     private void endOperation(Long id) {
-        AtomicBoolean operationStatus = pendingOperations.get(id);
-        if (operationStatus != null) {
-            operationStatus.set(false);
-            if (!operationStatus.get()) {
-                pendingOperations.remove(id);
+        operationLeaseService.release(id);
+    }
+
+    private enum Rejection {
+        NOT_OWNED,
+        WRONG_STATUS,
+        DISABLED,
+        IN_PROGRESS,
+        CONCURRENT_UPDATE;
+
+        String message(VacuumAction action) {
+            switch (this) {
+                case NOT_OWNED:
+                    return "Access Denied: Vacuum doesn't exist or doesn't belong to user";
+                case WRONG_STATUS:
+                    return "Access Denied: Can't " + action.name().toLowerCase() + " a vacuum that is not " + action.getRequiredStatus().name().toLowerCase();
+                case DISABLED:
+                    return "Access Denied: Vacuum is disabled";
+                case IN_PROGRESS:
+                    return "Access Denied: Vacuum operation already in progress";
+                default:
+                    return "Failed to update: The vacuum status was updated by another transaction";
             }
         }
     }
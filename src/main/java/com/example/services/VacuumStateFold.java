@@ -0,0 +1,89 @@
+package com.example.services;
+
+import com.example.models.entities.VacuumSnapshot;
+import com.example.models.entities.VacuumTransition;
+import com.example.models.enums.Status;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A vacuum's state folded from its transition log: starting at a snapshot, or at the first logged
+ * transition when there is none, each transition adds the time spent {@link Status#RUNNING} since
+ * the previous one. Time before the first logged transition is not known and not counted.
+ */
+class VacuumStateFold {
+
+    private final Long vacuumId;
+    private Status status;
+    private LocalDateTime since;
+    private int cycle;
+    private long runningMillis;
+    private long transitions;
+
+    private VacuumStateFold(Long vacuumId) {
+        this.vacuumId = vacuumId;
+    }
+
+    static VacuumStateFold empty(Long vacuumId) {
+        return new VacuumStateFold(vacuumId);
+    }
+
+    static VacuumStateFold from(VacuumSnapshot snapshot) {
+        VacuumStateFold fold = new VacuumStateFold(snapshot.getVacuumId());
+        fold.status = snapshot.getStatus();
+        fold.since = snapshot.getTakenAt();
+        fold.cycle = snapshot.getCycle();
+        fold.runningMillis = snapshot.getRunningMillis();
+        fold.transitions = snapshot.getTransitions();
+        return fold;
+    }
+
+    void apply(VacuumTransition transition) {
+        if (since == null) {
+            status = transition.getFromStatus();
+            since = transition.getOccurredAt();
+        }
+        advanceTo(transition.getOccurredAt());
+        status = transition.getToStatus();
+        cycle = transition.getCycle();
+        transitions++;
+    }
+
+    /**
+     * Accounts for the time up to {@code time} in the current status.
+     */
+    void advanceTo(LocalDateTime time) {
+        if (since == null || !time.isAfter(since)) return;
+        if (status == Status.RUNNING) runningMillis += Duration.between(since, time).toMillis();
+        since = time;
+    }
+
+    VacuumSnapshot toSnapshot(LocalDateTime takenAt) {
+        advanceTo(takenAt);
+        VacuumSnapshot snapshot = new VacuumSnapshot();
+        snapshot.setVacuumId(vacuumId);
+        snapshot.setTakenAt(takenAt);
+        snapshot.setStatus(status);
+        snapshot.setCycle(cycle);
+        snapshot.setRunningMillis(runningMillis);
+        snapshot.setTransitions(transitions);
+        return snapshot;
+    }
+
+    boolean isEmpty() {
+        return since == null;
+    }
+
+    Status getStatus() {
+        return status;
+    }
+
+    long getRunningMillis() {
+        return runningMillis;
+    }
+
+    long getTransitions() {
+        return transitions;
+    }
+}
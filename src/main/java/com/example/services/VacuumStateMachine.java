@@ -0,0 +1,117 @@
+package com.example.services;
+
+import com.example.models.entities.Vacuum;
+import com.example.models.entities.VacuumTransition;
+import com.example.models.enums.Status;
+import com.example.models.enums.TransitionStep;
+import com.example.models.enums.VacuumAction;
+import com.example.repositories.MyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Drives vacuum transitions without holding a thread while they wait: every {@link TransitionStep}
+ * is a timer callback that applies the new status, saves the vacuum, reports the step to the
+ * {@link TransitionRecorder} and schedules the next step.
+ */
+public class VacuumStateMachine {
+
+    private static final Logger log = LoggerFactory.getLogger(VacuumStateMachine.class);
+
+    private final MyService<Vacuum, Long> vacuumStore;
+    private final TransitionTimer timer;
+    private final TransitionRecorder recorder;
+    private final LongSupplier stepDelay;
+
+    public VacuumStateMachine(MyService<Vacuum, Long> vacuumStore, TransitionTimer timer, TransitionRecorder recorder,
+                              LongSupplier stepDelay) {
+        this.vacuumStore = vacuumStore;
+        this.timer = timer;
+        this.recorder = recorder;
+        this.stepDelay = stepDelay;
+    }
+
+    /**
+     * Starts the transition for {@code action}, requested by {@code userId}. The first step is
+     * applied to {@code vacuum} as given, later steps reload it. {@code onComplete} runs exactly
+     * once, after the last step or after a step failed.
+     */
+    public void begin(Vacuum vacuum, VacuumAction action, Long userId, Runnable onComplete) {
+        long delay = stepDelay.getAsLong();
+        Transition transition = new Transition(action, userId, LocalDateTime.now(), delay, onComplete);
+        timer.schedule(() -> runStep(vacuum, TransitionStep.first(action), transition), delay);
+    }
+
+    private void runStep(Vacuum vacuum, TransitionStep step, Transition transition) {
+        TransitionStep next;
+        Runnable onComplete = transition.onComplete;
+        try {
+            Status from = vacuum.getStatus();
+            vacuum.setStatus(step.getStatus());
+            if (step.isResetsCycle()) vacuum.setCycle(0);
+            Vacuum saved = vacuumStore.save(vacuum);
+            recorder.record(transition.step(saved, step, from));
+            next = step.next(saved.getCycle());
+        } catch (RuntimeException e) {
+            log.error("Vacuum {} transition failed at step {}", vacuum.getId(), step, e);
+            onComplete.run();
+            return;
+        }
+
+        if (next == null) {
+            onComplete.run();
+            return;
+        }
+
+        Long id = vacuum.getId();
+        timer.schedule(() -> {
+            Optional<Vacuum> reloaded;
+            try {
+                reloaded = vacuumStore.findById(id);
+            } catch (RuntimeException e) {
+                log.error("Vacuum {} could not be reloaded for step {}", id, next, e);
+                onComplete.run();
+                return;
+            }
+            if (reloaded.isPresent()) {
+                runStep(reloaded.get(), next, transition);
+            } else {
+                onComplete.run();
+            }
+        }, transition.delay);
+    }
+
+    private static final class Transition {
+        private final VacuumAction action;
+        private final Long userId;
+        private final LocalDateTime requestedAt;
+        private final long delay;
+        private final Runnable onComplete;
+
+        private Transition(VacuumAction action, Long userId, LocalDateTime requestedAt, long delay, Runnable onComplete) {
+            this.action = action;
+            this.userId = userId;
+            this.requestedAt = requestedAt;
+            this.delay = delay;
+            this.onComplete = onComplete;
+        }
+
+        private VacuumTransition step(Vacuum saved, TransitionStep step, Status from) {
+            VacuumTransition applied = new VacuumTransition();
+            applied.setVacuumId(saved.getId());
+            applied.setOccurredAt(LocalDateTime.now());
+            applied.setAction(action);
+            applied.setStep(step);
+            applied.setFromStatus(from);
+            applied.setToStatus(saved.getStatus());
+            applied.setCycle(saved.getCycle());
+            applied.setUserId(userId);
+            applied.setRequestedAt(requestedAt);
+            return applied;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.services;
+
+import com.example.models.entities.VacuumSnapshot;
+import com.example.models.entities.VacuumTransition;
+import com.example.repositories.VacuumSnapshotRepository;
+import com.example.repositories.VacuumTransitionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of applied transition steps in {@code vacuum_transitions}, written behind in
+ * batches like the error log, plus the periodic {@link VacuumSnapshot}s that bound how much of the
+ * log a timeline or uptime query has to read.
+ *
+ * <p>Snapshots are taken at multiples of {@code snapshotIntervalMillis}, once {@code graceMillis}
+ * have passed so that queued steps are written, and only for vacuums with transitions since the
+ * previous snapshot. Every instance runs the job; the snapshot key makes sure one of them wins.
+ */
+@Component
+public class VacuumTransitionLog implements TransitionRecorder, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(VacuumTransitionLog.class);
+
+    static final LocalDateTime LOG_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int SNAPSHOT_GROUP_SIZE = 500;
+
+    private final VacuumSnapshotRepository snapshotRepository;
+    private final VacuumTransitionRepository transitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindQueue<VacuumTransition> queue;
+    private final long snapshotIntervalMillis;
+    private final long graceMillis;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    private volatile LocalDateTime lastSnapshotAt;
+
+    public VacuumTransitionLog(VacuumTransitionRepository transitionRepository, VacuumSnapshotRepository snapshotRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${vacuum.transition-log.queue-capacity:10000}") int queueCapacity,
+                               @Value("${vacuum.transition-log.batch-size:100}") int batchSize,
+                               @Value("${vacuum.transition-log.flush-interval-ms:500}") long flushIntervalMillis,
+                               @Value("${vacuum.transition-log.snapshot-interval-ms:3600000}") long snapshotIntervalMillis,
+                               @Value("${vacuum.transition-log.snapshot-grace-ms:60000}") long graceMillis) {
+        this.transitionRepository = transitionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new WriteBehindQueue<>("transition_log", queueCapacity, batchSize, flushIntervalMillis,
+                batch -> transactionTemplate.executeWithoutResult(status -> transitionRepository.saveAll(batch)));
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        this.graceMillis = graceMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue.start();
+    }
+
+    @Override
+    public void record(VacuumTransition transition) {
+        queue.offer(transition);
+    }
+
+    @Scheduled(initialDelayString = "${vacuum.transition-log.snapshot-check-ms:60000}", fixedDelayString = "${vacuum.transition-log.snapshot-check-ms:60000}")
+    public void takeSnapshots() {
+        long boundaryMillis = (System.currentTimeMillis() - graceMillis) / snapshotIntervalMillis * snapshotIntervalMillis;
+        takeSnapshots(LocalDateTime.ofInstant(Instant.ofEpochMilli(boundaryMillis), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Snapshots, at {@code takenAt}, every vacuum with transitions since the previous snapshot time.
+     * Returns the number of snapshots written.
+     */
+    public int takeSnapshots(LocalDateTime takenAt) {
+        LocalDateTime previous = lastSnapshotAt;
+        if (previous == null) {
+            previous = snapshotRepository.findLastTakenAt();
+            if (previous == null) previous = LOG_START;
+        }
+        if (!takenAt.isAfter(previous)) return 0;
+
+        LocalDateTime after = previous;
+        try {
+            Integer written = transactionTemplate.execute(status -> snapshot(after, takenAt));
+            lastSnapshotAt = takenAt;
+            return written == null ? 0 : written;
+        } catch (DataIntegrityViolationException e) {
+            log.info("Snapshots at {} were already taken by another instance", takenAt);
+            lastSnapshotAt = takenAt;
+            return 0;
+        }
+    }
+
+    private int snapshot(LocalDateTime after, LocalDateTime takenAt) {
+        int written = 0;
+        Map<Long, List<VacuumTransition>> group = new LinkedHashMap<>();
+        try (Stream<VacuumTransition> transitions = transitionRepository.streamBetween(after, takenAt)) {
+            for (VacuumTransition transition : (Iterable<VacuumTransition>) transitions::iterator) {
+                List<VacuumTransition> vacuumTransitions = group.get(transition.getVacuumId());
+                if (vacuumTransitions == null) {
+                    // Rows come grouped by vacuum, so a full group is complete once the next vacuum starts
+                    if (group.size() == SNAPSHOT_GROUP_SIZE) {
+                        written += snapshotGroup(group, after, takenAt);
+                        group.clear();
+                    }
+                    vacuumTransitions = new ArrayList<>();
+                    group.put(transition.getVacuumId(), vacuumTransitions);
+                }
+                vacuumTransitions.add(transition);
+            }
+        }
+        if (!group.isEmpty()) written += snapshotGroup(group, after, takenAt);
+        return written;
+    }
+
+    private int snapshotGroup(Map<Long, List<VacuumTransition>> group, LocalDateTime after, LocalDateTime takenAt) {
+        Map<Long, VacuumSnapshot> previous = new LinkedHashMap<>();
+        for (VacuumSnapshot snapshot : snapshotRepository.findLatest(group.keySet(), after)) {
+            previous.put(snapshot.getVacuumId(), snapshot);
+        }
+
+        List<VacuumSnapshot> snapshots = new ArrayList<>(group.size());
+        for (Map.Entry<Long, List<VacuumTransition>> entry : group.entrySet()) {
+            VacuumSnapshot base = previous.get(entry.getKey());
+            VacuumStateFold fold = base != null ? VacuumStateFold.from(base) : VacuumStateFold.empty(entry.getKey());
+            entry.getValue().forEach(fold::apply);
+            snapshots.add(fold.toSnapshot(takenAt));
+        }
+        snapshotRepository.saveAll(snapshots);
+        entityManager.flush();
+        entityManager.clear();
+        return snapshots.size();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        queue.stop();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        queue.bindTo(registry);
+    }
+
+    public int getQueueDepth() {
+        return queue.getDepth();
+    }
+
+    public long getWritten() {
+        return queue.getWritten();
+    }
+
+    public long getDropped() {
+        return queue.getDropped();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Opt-in virtual-thread mode ({@code virtual-threads.enabled}, see the {@code virtual-threads}
+ * profile), which needs JDK 21 or later at runtime. Tomcat runs every request on a new virtual
+ * thread and the {@code @Scheduled} task scheduler creates virtual threads; transition steps are
+ * handed over to virtual threads by {@link ScheduledTransitionTimer}.
+ *
+ * <p>Blocking on a virtual thread is cheap, so the number of in-flight requests is no longer capped by
+ * a thread pool but by {@code server.tomcat.max-connections} and, for anything touching the database,
+ * by the Hikari pool, which has to be sized for the database rather than for the request threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestExecutor() {
+        return VirtualThreads.newThreadPerTaskExecutor("http-v-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler(ExecutorService requestExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+
+    @Bean
+    public TaskSchedulerCustomizer virtualThreadTaskScheduler() {
+        return taskScheduler -> taskScheduler.setThreadFactory(VirtualThreads.factory("scheduling-v-"));
+    }
+
+    @Bean(initMethod = "start")
+    public PinnedThreadMonitor pinnedThreadMonitor(@Value("${virtual-threads.pinning.threshold-ms:20}") long thresholdMillis) {
+        return new PinnedThreadMonitor(Duration.ofMillis(thresholdMillis));
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue drained by one background thread, which hands the queued items to {@code writer} in
+ * batches once {@code batchSize} items are waiting or {@code flushIntervalMillis} passed. When the
+ * queue is full new items are dropped and counted; a batch the writer fails on is counted as failed.
+ */
+class WriteBehindQueue<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Consumer<List<T>> writer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean running;
+    private Thread worker;
+
+    WriteBehindQueue(String name, int capacity, int batchSize, long flushIntervalMillis, Consumer<List<T>> writer) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.writer = writer;
+    }
+
+    void start() {
+        running = true;
+        worker = new Thread(this::run, name.replace('_', '-') + "-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    boolean offer(T item) {
+        if (queue.offer(item)) return true;
+        dropped.increment();
+        return false;
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                T first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Shutdown requested, whatever is left is flushed by stop()
+                break;
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<T> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            writer.accept(batch);
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            log.error("Failed to write {} {} entries", batch.size(), name, e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        List<T> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    void bindTo(MeterRegistry registry) {
+        Gauge.builder(name + ".queue.depth", queue, BlockingQueue::size).register(registry);
+        FunctionCounter.builder(name + ".written", written, LongAdder::sum).register(registry);
+        FunctionCounter.builder(name + ".dropped", dropped, LongAdder::sum).register(registry);
+        FunctionCounter.builder(name + ".failed", failed, LongAdder::sum).register(registry);
+    }
+
+    int getDepth() {
+        return queue.size();
+    }
+
+    long getWritten() {
+        return written.sum();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+}
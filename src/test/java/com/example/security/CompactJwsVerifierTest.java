@@ -0,0 +1,87 @@
+package com.example.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompactJwsVerifierTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(new VerifiedTokenCache(0));
+    private final CompactJwsVerifier verifier = new CompactJwsVerifier(TextCodec.BASE64.decode("secret"));
+
+    @Test
+    void readsTheSameClaimsAsJjwt() {
+        List<String> permissions = Arrays.asList("can_read_users", "can_start_vacuum");
+        String token = jwtUtil.generateToken(42L, 7, "user@example.com", permissions);
+
+        VerifiedToken verified = verifier.verify(token);
+        Claims claims = jwtUtil.extractAllClaims(token);
+
+        assertNotNull(verified);
+        assertNotNull(verified.getTokenId());
+        assertEquals(claims.getId(), verified.getTokenId());
+        assertEquals(claims.getSubject(), verified.getSubject());
+        assertEquals(claims.getExpiration().getTime(), verified.getExpiresAtMillis());
+        assertEquals(Long.valueOf(42), verified.getUserId());
+        assertEquals(Integer.valueOf(7), verified.getUserVersion());
+        assertEquals(permissions, verified.getPermissions());
+        assertEquals("can_start_vacuum", verified.getAuthorities().get(1).getAuthority());
+    }
+
+    @Test
+    void handlesTokensWithoutUserClaims() {
+        VerifiedToken verified = verifier.verify(jwtUtil.generateToken("user@example.com", Collections.emptyList()));
+
+        assertNotNull(verified);
+        assertNull(verified.getUserId());
+        assertEquals(0, verified.getPermissions().size());
+    }
+
+    @Test
+    void rejectsTamperedSignatureAndPayload() {
+        String token = jwtUtil.generateToken(1L, 0, "user@example.com", Collections.singletonList("can_read_users"));
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char flipped = token.charAt(signatureStart) == 'A' ? 'B' : 'A';
+        String tamperedSignature = token.substring(0, signatureStart) + flipped + token.substring(signatureStart + 1);
+        String otherPayload = jwtUtil.generateToken(1L, 0, "admin@example.com", Collections.singletonList("can_read_users"));
+        String swappedPayload = token.substring(0, token.indexOf('.'))
+                + otherPayload.substring(otherPayload.indexOf('.'), otherPayload.lastIndexOf('.'))
+                + token.substring(token.lastIndexOf('.'));
+
+        assertNull(verifier.verify(tamperedSignature));
+        assertNull(verifier.verify(swappedPayload));
+        assertNull(verifier.verify("not-a-token"));
+    }
+
+    @Test
+    void leavesExpiredAndForeignTokensToJjwt() {
+        String expired = Jwts.builder()
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(SignatureAlgorithm.HS512, "secret").compact();
+        String otherAlgorithm = Jwts.builder()
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256, "secret").compact();
+        String extraClaim = Jwts.builder()
+                .setSubject("user@example.com")
+                .setIssuer("someone-else")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS512, "secret").compact();
+
+        assertNull(verifier.verify(expired));
+        assertNull(verifier.verify(otherAlgorithm));
+        assertNull(verifier.verify(extraClaim));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.services;
+
+import com.example.models.dto.ErrorSummary;
+import com.example.models.entities.ErrorMessage;
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import com.example.models.enums.VacuumAction;
+import com.example.repositories.ErrorMessageRepository;
+import com.example.repositories.VacuumRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "vacuum.read-model.enabled=false",
+        "error-log.purge-batch-size=3",
+        "error-log.purge-max-batches=2",
+        "error-log.rollup-max-hours=1",
+        "error-log.purge-pause-ms=0",
+        "error-log.rollup-interval-ms=3600000",
+        "error-log.purge-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ErrorLogRetentionTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    @Autowired
+    private ErrorLogRetention retention;
+
+    @Autowired
+    private ErrorMessageRepository errorMessages;
+
+    @Autowired
+    private ErrorMessageService errorMessageService;
+
+    @Autowired
+    private VacuumRepository vacuums;
+
+    @Test
+    void countsSurviveThePurgeOfRolledUpHours() {
+        Long vacuumId = vacuum(5L);
+        Long otherVacuumId = vacuum(6L);
+
+        List<ErrorMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            messages.add(errorMessage(vacuumId, VacuumAction.START, "Vacuum is already running", T0.plusMinutes(10 * i)));
+        }
+        messages.add(errorMessage(vacuumId, VacuumAction.STOP, "Vacuum is not running", T0.plusMinutes(5)));
+        // Hours 3 and 5 only, the hours between have no messages
+        messages.add(errorMessage(vacuumId, VacuumAction.START, "Vacuum is already running", T0.plusHours(3)));
+        messages.add(errorMessage(otherVacuumId, VacuumAction.START, "Vacuum is already running", T0.plusHours(3)));
+        messages.add(errorMessage(vacuumId, VacuumAction.START, "Vacuum is already running", T0.plusHours(5).plusMinutes(1)));
+        errorMessages.saveAll(messages);
+
+        // One hour per run; hour 5 is not complete yet
+        assertEquals(2, retention.rollUp(T0.plusHours(5)));
+        assertEquals(2, retention.rollUp(T0.plusHours(5)));
+        assertEquals(0, retention.rollUp(T0.plusHours(5)));
+
+        // Two batches of three per run, and never past the rolled up hours
+        assertEquals(6, retention.purge(T0.plusDays(1)));
+        assertEquals(1, retention.purge(T0.plusDays(1)));
+        assertEquals(1, errorMessages.count());
+
+        List<ErrorSummary> summary = errorMessageService.summarizeByVacuumOwner(5L, null, T0, T0.plusDays(1));
+        assertEquals(2, summary.size());
+        assertEquals(new ErrorSummary(vacuumId, VacuumAction.START, "Vacuum is already running", 5), summary.get(0));
+        assertEquals(new ErrorSummary(vacuumId, VacuumAction.STOP, "Vacuum is not running", 1), summary.get(1));
+
+        List<ErrorSummary> stops = errorMessageService.summarizeByVacuumOwner(5L, VacuumAction.STOP, T0, T0.plusDays(1));
+        assertEquals(1, stops.size());
+
+        assertEquals(1, retention.rollUp(T0.plusHours(6)));
+        assertEquals(1, retention.purge(T0.plusDays(1)));
+        assertEquals(6, errorMessageService.summarizeByVacuumOwner(5L, VacuumAction.START, T0, T0.plusDays(1)).get(0).getCount());
+    }
+
+    private Long vacuum(Long addedBy) {
+        Vacuum vacuum = new Vacuum();
+        vacuum.setName("vacuum-of-" + addedBy);
+        vacuum.setStatus(Status.STOPPED);
+        vacuum.setAddedBy(addedBy);
+        vacuum.setActive(true);
+        return vacuums.save(vacuum).getId();
+    }
+
+    private static ErrorMessage errorMessage(Long vacuumId, VacuumAction action, String message, LocalDateTime timestamp) {
+        ErrorMessage errorMessage = new ErrorMessage();
+        errorMessage.setVacuumId(vacuumId);
+        errorMessage.setVacuumName("vacuum");
+        errorMessage.setAction(action);
+        errorMessage.setMessage(message);
+        errorMessage.setTimestamp(timestamp);
+        return errorMessage;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.services;
+
+import com.example.DemoApplication;
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import com.example.models.enums.VacuumAction;
+import com.example.repositories.VacuumRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application contexts, standing in for two backend instances, sharing one database. Each has a
+ * single pooled connection, so a command that needed a second one for its lease would time out.
+ * Node B renews its leases in the background, node A only when a test says so.
+ */
+class OperationLeaseServiceTest {
+
+    private static final long LEASE_TTL = 500;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static OperationLeaseService leasesA;
+    private static OperationLeaseService leasesB;
+
+    @BeforeAll
+    static void startNodes() {
+        // Node A never renews on its own, node B renews well within the TTL
+        nodeA = startNode("node-a", 3600000);
+        nodeB = startNode("node-b", LEASE_TTL / 5);
+        leasesA = nodeA.getBean(OperationLeaseService.class);
+        leasesB = nodeB.getBean(OperationLeaseService.class);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) nodeA.close();
+        if (nodeB != null) nodeB.close();
+    }
+
+    @Test
+    void leaseIsExclusiveUntilReleased() {
+        assertTrue(leasesA.tryAcquire(1L));
+        assertFalse(leasesB.tryAcquire(1L));
+        assertFalse(leasesA.tryAcquire(1L));
+
+        leasesA.release(1L);
+
+        assertTrue(leasesB.tryAcquire(1L));
+        assertFalse(leasesA.tryAcquire(1L));
+        leasesB.release(1L);
+    }
+
+    @Test
+    void renewedLeaseOutlivesTtl() throws InterruptedException {
+        assertTrue(leasesA.tryAcquire(2L));
+
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(LEASE_TTL / 2);
+            leasesA.renewHeld();
+        }
+
+        assertFalse(leasesB.tryAcquire(2L));
+        leasesA.release(2L);
+    }
+
+    @Test
+    void expiredLeaseOfDeadNodeIsReclaimed() throws InterruptedException {
+        assertTrue(leasesA.tryAcquire(3L));
+
+        // Node A stops renewing, as if it died
+        Thread.sleep(LEASE_TTL * 2);
+
+        assertTrue(leasesB.tryAcquire(3L));
+        assertFalse(leasesA.tryAcquire(3L));
+        leasesB.release(3L);
+    }
+
+    @Test
+    void renewalIsNotHeldUpByTheSharedScheduler() throws InterruptedException {
+        CountDownLatch jobDone = new CountDownLatch(1);
+        // A long job occupies node B's @Scheduled thread
+        nodeB.getBean(TaskScheduler.class).schedule(() -> {
+            try {
+                jobDone.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, new Date());
+
+        try {
+            assertTrue(leasesB.tryAcquire(4L));
+            Thread.sleep(LEASE_TTL * 2);
+            assertFalse(leasesA.tryAcquire(4L));
+        } finally {
+            jobDone.countDown();
+            leasesB.release(4L);
+        }
+    }
+
+    @Test
+    void concurrentAcquireHasSingleWinner() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> resultsA = new ArrayList<>();
+            List<Future<Boolean>> resultsB = new ArrayList<>();
+            for (long vacuumId = 100; vacuumId < 150; vacuumId++) {
+                long id = vacuumId;
+                resultsA.add(executor.submit((Callable<Boolean>) () -> leasesA.tryAcquire(id)));
+                resultsB.add(executor.submit((Callable<Boolean>) () -> leasesB.tryAcquire(id)));
+            }
+
+            for (int i = 0; i < resultsA.size(); i++) {
+                boolean a = resultsA.get(i).get();
+                boolean b = resultsB.get(i).get();
+                assertEquals(1, (a ? 1 : 0) + (b ? 1 : 0), "vacuum " + (100 + i));
+            }
+        } finally {
+            executor.shutdown();
+            leasesA.releaseAll();
+            leasesB.releaseAll();
+        }
+    }
+
+    @Test
+    void commandTakesLeaseWithSinglePooledConnection() {
+        Vacuum vacuum = new Vacuum();
+        vacuum.setName("leased");
+        vacuum.setStatus(Status.STOPPED);
+        vacuum.setAddedBy(1L);
+        vacuum.setActive(true);
+        Long vacuumId = nodeA.getBean(VacuumRepository.class).save(vacuum).getId();
+
+        try {
+            assertEquals(HttpStatus.OK, nodeA.getBean(VacuumService.class).updateVacuumStatus(vacuumId, VacuumAction.START, 1L).getStatusCode());
+            assertTrue(leasesA.isHeld(vacuumId));
+            assertEquals(HttpStatus.FORBIDDEN, nodeB.getBean(VacuumService.class).updateVacuumStatus(vacuumId, VacuumAction.START, 1L).getStatusCode());
+        } finally {
+            leasesA.release(vacuumId);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId, long renewIntervalMillis) {
+        // Both nodes share one named database instead of the per-context one of the test profile
+        return new SpringApplicationBuilder(DemoApplication.class).profiles("test").run(
+                "--spring.datasource.url=jdbc:h2:mem:leases;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.hikari.maximum-pool-size=1",
+                "--spring.datasource.hikari.connection-timeout=5000",
+                "--server.port=0",
+                "--lease.node-id=" + nodeId,
+                "--lease.ttl-ms=" + LEASE_TTL,
+                "--lease.renew-interval-ms=" + renewIntervalMillis);
+    }
+}
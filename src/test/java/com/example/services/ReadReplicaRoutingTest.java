@@ -0,0 +1,152 @@
+package com.example.services;
+
+import com.example.models.entities.User;
+import com.example.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.replica.url=jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.replica.username=sa",
+        "spring.datasource.replica.read-your-writes-ms=60000",
+        "cache.enabled=false",
+        "vacuum.read-model.enabled=false"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc(addFilters = false)
+@Import(ReadReplicaRoutingTest.RoutingProbe.class)
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void copySchema(@Autowired @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                           @Autowired @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        // Stand-in for replication: copy the schema Hibernate created on the primary
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        for (String statement : primary.queryForList("SCRIPT NODATA", String.class)) {
+            if (statement.startsWith("CREATE USER")) continue;
+            replica.execute(statement);
+        }
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyServiceMethodsUseTheReplica() {
+        Long id = userService.save(user("replica-lag@example.com")).getId();
+
+        // Not replicated yet: the read-only service method cannot see it, a plain repository read can
+        assertFalse(userService.findSummaryById(id).isPresent());
+        assertTrue(userService.findById(id).isPresent());
+    }
+
+    @Test
+    void authenticationLookupsUseThePrimary() {
+        userService.save(user("new-login@example.com"));
+
+        assertEquals("new-login@example.com", userService.findByEmail("new-login@example.com").getEmail());
+        assertEquals("new-login@example.com", userService.loadUserByUsername("new-login@example.com").getUsername());
+    }
+
+    @Test
+    void readsFollowTheUsersOwnWritesToThePrimary() {
+        User writer = userService.save(user("writer@example.com"));
+        AuthenticatedUser principal = new AuthenticatedUser(writer.getId(), writer.getVersion(), writer.getEmail(), "", Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        Long id = userService.save(user("written-by-writer@example.com")).getId();
+
+        assertEquals("written-by-writer@example.com", userService.findSummaryById(id).get().getEmail());
+        SecurityContextHolder.clearContext();
+        assertFalse(userService.findSummaryById(id).isPresent());
+    }
+
+    @Test
+    void writeAfterReadOnlyReadInOneRequestGoesToThePrimary() throws Exception {
+        mockMvc.perform(post("/routing-probe/users").param("email", "probe-write@example.com"))
+                .andExpect(status().isOk());
+
+        assertTrue(userService.emailExists("probe-write@example.com"));
+    }
+
+    @Test
+    void readOnlyReadAfterRepositoryReadInOneRequestUsesTheReplica() throws Exception {
+        Long id = userService.save(user("probe-read@example.com")).getId();
+
+        mockMvc.perform(get("/routing-probe/users/" + id))
+                .andExpect(status().isOk())
+                .andExpect(content().string("false"));
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        user.setPermissions(Collections.emptySet());
+        return user;
+    }
+
+    /**
+     * Requests that mix primary and replica transactions, as the real endpoints do. Deliberately not a
+     * stereotype, so that only this test's context imports it.
+     */
+    @RequestMapping("/routing-probe")
+    @ResponseBody
+    static class RoutingProbe {
+
+        private final UserService userService;
+
+        RoutingProbe(UserService userService) {
+            this.userService = userService;
+        }
+
+        @PostMapping("/users")
+        Long readThenWrite(@RequestParam String email) {
+            userService.findAllSummaries();
+            return userService.save(user(email)).getId();
+        }
+
+        @GetMapping("/users/{id}")
+        boolean repositoryReadThenReadOnlyRead(@PathVariable Long id) {
+            userService.findById(id);
+            return userService.findSummaryById(id).isPresent();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.services;
+
+import com.example.models.entities.ScheduledOperation;
+import com.example.models.enums.ScheduledOperationStatus;
+import com.example.models.enums.VacuumAction;
+import com.example.repositories.ScheduledOperationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "scheduler.poll-interval-ms=3600000",
+        "scheduler.rescan-ms=0"
+})
+@ActiveProfiles("test")
+class ScheduledOperationServiceTest {
+
+    @Autowired
+    private ScheduledOperationService scheduledOperationService;
+
+    @Autowired
+    private ScheduledOperationRepository scheduledOperations;
+
+    @Test
+    void operationInsertedByAnotherInstanceIntoTheLoadedWindowIsFired() throws InterruptedException {
+        scheduledOperationService.dispatch();
+
+        // Another instance schedules an operation, for a vacuum that does not exist, inside the window
+        ScheduledOperation operation = new ScheduledOperation();
+        operation.setVacuumId(-1L);
+        operation.setAction(VacuumAction.START);
+        operation.setUserId(1L);
+        operation.setScheduledAt(LocalDateTime.now().minusSeconds(1));
+        operation.setStatus(ScheduledOperationStatus.PENDING);
+        Long id = scheduledOperations.save(operation).getId();
+
+        scheduledOperationService.dispatch();
+
+        awaitStatus(id, ScheduledOperationStatus.FAILED);
+    }
+
+    // Fired on the dispatch pool: claimed as COMPLETED first, then marked FAILED
+    private void awaitStatus(Long id, ScheduledOperationStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (scheduledOperations.findById(id).get().getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(status, scheduledOperations.findById(id).get().getStatus());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.services;
+
+import com.example.models.entities.User;
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Permission;
+import com.example.models.enums.Status;
+import com.example.repositories.UserRepository;
+import com.example.repositories.VacuumRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "vacuum.read-model.enabled=false")
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private VacuumRepository vacuums;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void vacuumReadsAreServedFromCacheAndFollowVersion() {
+        Vacuum vacuum = new Vacuum();
+        vacuum.setName("cached");
+        vacuum.setStatus(Status.STOPPED);
+        vacuum.setAddedBy(1L);
+        vacuum.setActive(true);
+        Long id = vacuums.save(vacuum).getId();
+
+        vacuums.findById(id);
+        vacuums.findById(id);
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 1);
+
+        Vacuum loaded = vacuums.findById(id).get();
+        loaded.setStatus(Status.RUNNING);
+        Vacuum saved = vacuums.save(loaded);
+
+        Vacuum reloaded = vacuums.findById(id).get();
+        assertEquals(Status.RUNNING, reloaded.getStatus());
+        assertEquals(saved.getVersion(), reloaded.getVersion());
+    }
+
+    @Test
+    void userLookupByEmailAlwaysReadsTheDatabase() {
+        User user = new User();
+        user.setEmail("uncached@example.com");
+        user.setPasswordHash("hash");
+        user.setPermissions(EnumSet.of(Permission.can_read_users));
+        users.save(user);
+
+        users.findByEmail("uncached@example.com");
+        // Another instance changes the password behind this one's back
+        jdbcTemplate.update("update users set password_hash = ? where email = ?", "changed", "uncached@example.com");
+
+        statistics.clear();
+        assertEquals("changed", users.findByEmail("uncached@example.com").get().getPasswordHash());
+        // User and permissions in one query
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").meter());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.services;
+
+import com.example.models.entities.TokenRevocation;
+import com.example.repositories.TokenRevocationRepository;
+import com.example.security.VerifiedToken;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private final TokenRevocationRepository repository = Mockito.mock(TokenRevocationRepository.class);
+    private final TokenRevocationService revocations = new TokenRevocationService(repository, 100);
+
+    private static VerifiedToken token(String tokenId, Long userId, Integer userVersion) {
+        return new VerifiedToken(tokenId, "user@example.com", userId, userVersion,
+                Collections.emptyList(), Collections.emptyList(), System.currentTimeMillis() + 60_000);
+    }
+
+    @Test
+    void revokesSingleToken() {
+        VerifiedToken revoked = token("a", 1L, 0);
+
+        assertTrue(revocations.revokeToken(revoked));
+
+        assertTrue(revocations.isRevoked(revoked));
+        assertFalse(revocations.isRevoked(token("b", 1L, 0)));
+        assertFalse(revocations.revokeToken(token(null, 1L, 0)));
+    }
+
+    @Test
+    void revokesUserTokensBelowVersion() {
+        revocations.revokeAllForUser(1L, 3);
+
+        assertTrue(revocations.isRevoked(token("a", 1L, 2)));
+        assertFalse(revocations.isRevoked(token("b", 1L, 3)));
+        assertFalse(revocations.isRevoked(token("c", 2L, 0)));
+
+        revocations.revokeUser(1L);
+        assertTrue(revocations.isRevoked(token("d", 1L, 3)));
+    }
+
+    @Test
+    void refreshLoadsRevocationsOfOtherInstances() {
+        TokenRevocation byToken = new TokenRevocation();
+        byToken.setTokenId("remote");
+        byToken.setExpiresAt(LocalDateTime.now().plusMinutes(1));
+        TokenRevocation byUser = new TokenRevocation();
+        byUser.setUserId(7L);
+        byUser.setMinUserVersion(5);
+        byUser.setExpiresAt(LocalDateTime.now().plusMinutes(1));
+        when(repository.findByExpiresAtAfter(any())).thenReturn(Arrays.asList(byToken, byUser));
+
+        revocations.refresh();
+
+        assertTrue(revocations.isRevoked(token("remote", 1L, 0)));
+        assertTrue(revocations.isRevoked(token("x", 7L, 4)));
+        assertFalse(revocations.isRevoked(token("y", 7L, 5)));
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("token-" + i));
+
+        IntStream.range(0, 10_000).forEach(i -> assertTrue(filter.mightContain("token-" + i)));
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("other-" + i)).count();
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
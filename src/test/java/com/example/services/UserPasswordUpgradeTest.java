@@ -0,0 +1,44 @@
+package com.example.services;
+
+import com.example.models.entities.User;
+import com.example.models.enums.Permission;
+import com.example.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "auth.bcrypt.strength=6")
+@ActiveProfiles("test")
+class UserPasswordUpgradeTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Test
+    void loginRehashesPasswordStoredWithLowerCost() {
+        User user = new User();
+        user.setEmail("rehash@example.com");
+        user.setPasswordHash(BCrypt.hashpw("secret", BCrypt.gensalt(4)));
+        user.setPermissions(EnumSet.of(Permission.can_read_users));
+        String oldHash = userRepository.save(user).getPasswordHash();
+
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("rehash@example.com", "secret"));
+
+        String newHash = userRepository.findByEmail("rehash@example.com").get().getPasswordHash();
+        assertNotEquals(oldHash, newHash);
+        assertTrue(newHash.startsWith("$2a$06$"));
+        assertTrue(BCrypt.checkpw("secret", newHash));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.services;
+
+import com.example.models.dto.UserSummary;
+import com.example.models.entities.User;
+import com.example.models.enums.Permission;
+import com.example.repositories.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserSummaryTest {
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void summariesAreReadInOneQueryWithPermissions() {
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setEmail("summary" + i + "@example.com");
+            user.setPasswordHash("hash");
+            user.setPermissions(i == 0 ? Collections.emptySet() : EnumSet.of(Permission.can_read_users, Permission.can_add_vacuum));
+            users.save(user);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<UserSummary> summaries = userService.findAllSummaries();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        Map<String, UserSummary> byEmail = summaries.stream().collect(Collectors.toMap(UserSummary::getEmail, Function.identity()));
+        assertEquals(5, byEmail.size());
+        assertEquals(Collections.emptySet(), byEmail.get("summary0@example.com").getPermissions());
+        assertEquals(EnumSet.of(Permission.can_read_users, Permission.can_add_vacuum), byEmail.get("summary3@example.com").getPermissions());
+        assertFalse(userService.findSummaryById(-1L).isPresent());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.services;
+
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "vacuum.read-model.poll-ms=3600000")
+@ActiveProfiles("test")
+class VacuumReadModelPollTest {
+
+    @Autowired
+    private VacuumService vacuumService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private VacuumEventHub vacuumEventHub;
+
+    @Test
+    void changesOfOtherInstancesArePolled() {
+        Vacuum vacuum = new Vacuum();
+        vacuum.setName("polled");
+        vacuum.setStatus(Status.STOPPED);
+        vacuum.setAddedBy(1L);
+        vacuum.setActive(true);
+        Long id = vacuumService.save(vacuum).getId();
+        assertEquals(Status.STOPPED, vacuumService.findByIdForRead(id).get().getStatus());
+
+        // Another instance starts the vacuum and bumps its version
+        jdbcTemplate.update("update vacuums set status = ?, version = version + 1, updated_at = ? where id = ?",
+                Status.RUNNING.ordinal(), LocalDateTime.now(), id);
+        assertEquals(Status.STOPPED, vacuumService.findByIdForRead(id).get().getStatus());
+
+        vacuumService.pollReadModelChanges();
+        assertEquals(Status.RUNNING, vacuumService.findByIdForRead(id).get().getStatus());
+
+        // Published to this instance's subscribers once, although the next poll reads the row again
+        vacuumService.pollReadModelChanges();
+        verify(vacuumEventHub, times(1)).publish(argThat(published -> id.equals(published.getId()) && published.getStatus() == Status.RUNNING));
+        verify(vacuumEventHub, times(1)).publish(argThat(published -> id.equals(published.getId()) && published.getStatus() == Status.STOPPED));
+    }
+}
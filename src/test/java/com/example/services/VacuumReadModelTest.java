@@ -0,0 +1,86 @@
+package com.example.services;
+
+import com.example.models.dto.PageCursor;
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VacuumReadModelTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void ignoresOlderVersions() {
+        VacuumReadModel model = new VacuumReadModel(16);
+        assertTrue(model.apply(vacuum(1, 7L, Status.RUNNING, 2L, 0)));
+        assertFalse(model.apply(vacuum(1, 7L, Status.STOPPED, 1L, 0)));
+        assertFalse(model.apply(vacuum(1, 7L, Status.RUNNING, 2L, 0)));
+
+        assertEquals(Status.RUNNING, model.findById(1).getStatus());
+        assertEquals(1, model.findAllByStatus(Status.RUNNING).size());
+        assertTrue(model.findAllByStatus(Status.STOPPED).isEmpty());
+    }
+
+    @Test
+    void reindexesOwnerAndStatusChanges() {
+        VacuumReadModel model = new VacuumReadModel(16);
+        model.apply(vacuum(1, 7L, Status.STOPPED, 0L, 0));
+        model.apply(vacuum(1, 8L, Status.RUNNING, 1L, 0));
+
+        assertTrue(model.findAllByAddedBy(7).isEmpty());
+        assertEquals(1, model.findAllByAddedBy(8).size());
+        assertTrue(model.findAllByStatus(Status.STOPPED).isEmpty());
+
+        model.remove(1);
+        assertNull(model.findById(1));
+        assertTrue(model.findAllByAddedBy(8).isEmpty());
+    }
+
+    @Test
+    void searchPagesInCreationOrder() {
+        VacuumReadModel model = new VacuumReadModel(16);
+        for (int id = 1; id <= 10; id++) {
+            model.apply(vacuum(id, 7L, id % 2 == 0 ? Status.RUNNING : Status.STOPPED, 0L, 10 - id));
+        }
+        model.apply(vacuum(11, 9L, Status.RUNNING, 0L, 0));
+
+        List<Vacuum> first = model.search(7, null, Collections.singleton(Status.RUNNING), null, null, null, 3);
+        assertEquals(ids(10, 8, 6), ids(first));
+
+        Vacuum last = first.get(first.size() - 1);
+        List<Vacuum> second = model.search(7, null, Collections.singleton(Status.RUNNING), null, null,
+                new PageCursor(last.getCreatedAt(), last.getId()), 3);
+        assertEquals(ids(4, 2), ids(second));
+    }
+
+    private static List<Long> ids(long... ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<Vacuum> vacuums) {
+        return vacuums.stream().map(Vacuum::getId).collect(Collectors.toList());
+    }
+
+    private static Vacuum vacuum(long id, Long addedBy, Status status, Long version, int minutesAfterStart) {
+        Vacuum vacuum = new Vacuum();
+        vacuum.setId(id);
+        vacuum.setName("vacuum-" + id);
+        vacuum.setAddedBy(addedBy);
+        vacuum.setStatus(status);
+        vacuum.setVersion(version);
+        vacuum.setActive(true);
+        vacuum.setCreatedAt(START.plusMinutes(minutesAfterStart));
+        return vacuum;
+    }
+}
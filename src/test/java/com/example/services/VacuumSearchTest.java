@@ -0,0 +1,63 @@
+package com.example.services;
+
+import com.example.models.dto.VacuumSummary;
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import com.example.repositories.VacuumRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The database search serves /vacuums/search when the read model is disabled; both must return the
+ * same vacuums for the same query.
+ */
+@SpringBootTest(properties = "vacuum.read-model.enabled=false")
+@ActiveProfiles("test")
+class VacuumSearchTest {
+
+    private static final long OWNER = 42L;
+
+    @Autowired
+    private VacuumService vacuumService;
+
+    @Autowired
+    private VacuumRepository vacuumRepository;
+
+    @Test
+    void databaseAndReadModelMatchNamesAlike() {
+        for (String name : Arrays.asList("Kitchen Robot", "kitchen mop", "KITCHEN", "Garage")) {
+            save(name, OWNER);
+        }
+        save("kitchen", OWNER + 1);
+
+        VacuumReadModel model = new VacuumReadModel(16);
+        vacuumRepository.findAll().forEach(model::apply);
+
+        List<Long> fromDatabase = vacuumService.search(OWNER, "KitChen", null, null, null, null, 10).getItems().stream()
+                .map(VacuumSummary::getId)
+                .collect(Collectors.toList());
+        List<Long> fromReadModel = model.search(OWNER, "KitChen", null, null, null, null, 10).stream()
+                .map(Vacuum::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(3, fromDatabase.size());
+        assertEquals(fromDatabase, fromReadModel);
+    }
+
+    private void save(String name, Long addedBy) {
+        Vacuum vacuum = new Vacuum();
+        vacuum.setName(name);
+        vacuum.setStatus(Status.STOPPED);
+        vacuum.setAddedBy(addedBy);
+        vacuum.setActive(true);
+        vacuumService.save(vacuum);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.services;
+
+import com.example.models.entities.Vacuum;
+import com.example.models.enums.Status;
+import com.example.models.enums.VacuumAction;
+import com.example.repositories.MyService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VacuumStateMachineTest {
+
+    private static final long STEP_DELAY = 15_000;
+    private static final int VACUUMS = 100_000;
+
+    @Test
+    void drivesConcurrentTransitionsOnVirtualTime() {
+        VirtualTimer timer = new VirtualTimer();
+        InMemoryVacuumStore store = new InMemoryVacuumStore();
+        AtomicInteger recorded = new AtomicInteger();
+        VacuumStateMachine stateMachine = new VacuumStateMachine(store, timer, transition -> recorded.incrementAndGet(), () -> STEP_DELAY);
+        AtomicInteger completed = new AtomicInteger();
+
+        for (long id = 0; id < VACUUMS; id++) {
+            Vacuum vacuum;
+            VacuumAction action;
+            switch ((int) (id % 3)) {
+                case 0:
+                    vacuum = vacuum(id, Status.STOPPED, 1);
+                    action = VacuumAction.START;
+                    break;
+                case 1:
+                    vacuum = vacuum(id, Status.RUNNING, 3);
+                    action = VacuumAction.STOP;
+                    break;
+                default:
+                    vacuum = vacuum(id, Status.STOPPED, 2);
+                    action = VacuumAction.DISCHARGE;
+            }
+            store.save(vacuum);
+            stateMachine.begin(vacuum, action, 1L, completed::incrementAndGet);
+        }
+
+        assertEquals(VACUUMS, timer.pending());
+
+        timer.advance(STEP_DELAY);
+        assertEquals(VACUUMS / 3 + 1, completed.get());
+        assertStatus(store, 0, Status.RUNNING, 1);
+        assertStatus(store, 1, Status.STOPPED, 3);
+        assertStatus(store, 2, Status.DISCHARGING, 2);
+
+        timer.advance(STEP_DELAY);
+        assertStatus(store, 1, Status.DISCHARGING, 0);
+        assertStatus(store, 2, Status.STOPPED, 0);
+
+        timer.advance(STEP_DELAY);
+        assertStatus(store, 1, Status.STOPPED, 0);
+
+        assertEquals(VACUUMS, completed.get());
+        assertEquals(0, timer.pending());
+        // START takes one step, STOP at the third cycle three and DISCHARGE two
+        assertEquals(VACUUMS / 3 + 1 + 3 * (VACUUMS / 3) + 2 * (VACUUMS / 3), recorded.get());
+        assertTrue(store.vacuums.values().stream().noneMatch(v -> v.getStatus() == Status.DISCHARGING));
+    }
+
+    @Test
+    void completesWhenStepFails() {
+        VirtualTimer timer = new VirtualTimer();
+        InMemoryVacuumStore store = new InMemoryVacuumStore() {
+            @Override
+            public <S extends Vacuum> S save(S vacuum) {
+                throw new IllegalStateException("database down");
+            }
+        };
+        VacuumStateMachine stateMachine = new VacuumStateMachine(store, timer, transition -> { }, () -> STEP_DELAY);
+        AtomicInteger completed = new AtomicInteger();
+
+        stateMachine.begin(vacuum(1L, Status.STOPPED, 0), VacuumAction.START, 1L, completed::incrementAndGet);
+        timer.advance(STEP_DELAY);
+
+        assertEquals(1, completed.get());
+        assertEquals(0, timer.pending());
+    }
+
+    private static void assertStatus(InMemoryVacuumStore store, long id, Status status, int cycle) {
+        Vacuum vacuum = store.vacuums.get(id);
+        assertEquals(status, vacuum.getStatus());
+        assertEquals(cycle, vacuum.getCycle());
+    }
+
+    private static Vacuum vacuum(long id, Status status, int cycle) {
+        Vacuum vacuum = new Vacuum();
+        vacuum.setId(id);
+        vacuum.setStatus(status);
+        vacuum.setCycle(cycle);
+        vacuum.setActive(true);
+        return vacuum;
+    }
+
+    /**
+     * Timer on virtual time: tasks run on the calling thread when the clock is advanced past them.
+     */
+    private static class VirtualTimer implements TransitionTimer {
+
+        private final PriorityQueue<Scheduled> queue = new PriorityQueue<>();
+        private long now;
+        private long sequence;
+
+        @Override
+        public void schedule(Runnable task, long delayMillis) {
+            queue.add(new Scheduled(now + delayMillis, sequence++, task));
+        }
+
+        void advance(long millis) {
+            long target = now + millis;
+            while (!queue.isEmpty() && queue.peek().time <= target) {
+                Scheduled next = queue.poll();
+                now = next.time;
+                next.task.run();
+            }
+            now = target;
+        }
+
+        int pending() {
+            return queue.size();
+        }
+
+        private static class Scheduled implements Comparable<Scheduled> {
+            private final long time;
+            private final long sequence;
+            private final Runnable task;
+
+            private Scheduled(long time, long sequence, Runnable task) {
+                this.time = time;
+                this.sequence = sequence;
+                this.task = task;
+            }
+
+            @Override
+            public int compareTo(Scheduled other) {
+                int byTime = Long.compare(time, other.time);
+                return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+            }
+        }
+    }
+
+    private static class InMemoryVacuumStore implements MyService<Vacuum, Long> {
+
+        private final ConcurrentHashMap<Long, Vacuum> vacuums = new ConcurrentHashMap<>();
+
+        @Override
+        public <S extends Vacuum> S save(S vacuum) {
+            vacuums.put(vacuum.getId(), vacuum);
+            return vacuum;
+        }
+
+        @Override
+        public Optional<Vacuum> findById(Long id) {
+            return Optional.ofNullable(vacuums.get(id));
+        }
+
+        @Override
+        public List<Vacuum> findAll() {
+            return new ArrayList<>(vacuums.values());
+        }
+
+        @Override
+        public void deleteById(Long id) {
+            vacuums.remove(id);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.services;
+
+import com.example.models.dto.CursorPage;
+import com.example.models.dto.PageCursor;
+import com.example.models.dto.VacuumUptime;
+import com.example.models.entities.VacuumTransition;
+import com.example.models.enums.Status;
+import com.example.models.enums.TransitionStep;
+import com.example.models.enums.VacuumAction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = "vacuum.transition-log.flush-interval-ms=50")
+@ActiveProfiles("test")
+class VacuumTransitionLogTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private VacuumTransitionLog transitionLog;
+
+    @Autowired
+    private VacuumHistoryService history;
+
+    @Test
+    void uptimeIsTheSameWithAndWithoutSnapshots() throws InterruptedException {
+
+        long before = transitionLog.getWritten();
+        // Runs 10:00-10:30 and 12:00-13:00
+        transitionLog.record(transition(7L, T0.plusHours(10), Status.STOPPED, Status.RUNNING));
+        transitionLog.record(transition(7L, T0.plusHours(10).plusMinutes(30), Status.RUNNING, Status.STOPPED));
+        transitionLog.record(transition(7L, T0.plusHours(12), Status.STOPPED, Status.RUNNING));
+        transitionLog.record(transition(7L, T0.plusHours(13), Status.RUNNING, Status.STOPPED));
+        transitionLog.record(transition(8L, T0.plusHours(11), Status.STOPPED, Status.RUNNING));
+        awaitWritten(transitionLog, before + 5);
+
+        VacuumUptime beforeSnapshots = history.findUptime(7L, T0.plusHours(10).plusMinutes(15), T0.plusHours(12).plusMinutes(30));
+        assertEquals(Duration.ofMinutes(45).toMillis(), beforeSnapshots.getRunningMillis());
+        assertEquals(2, beforeSnapshots.getTransitions());
+        assertEquals(Status.RUNNING, beforeSnapshots.getStatus());
+
+        assertEquals(2, transitionLog.takeSnapshots(T0.plusHours(11)));
+        assertEquals(1, transitionLog.takeSnapshots(T0.plusHours(12).plusMinutes(30)));
+        assertEquals(0, transitionLog.takeSnapshots(T0.plusHours(12)));
+
+        VacuumUptime afterSnapshots = history.findUptime(7L, T0.plusHours(10).plusMinutes(15), T0.plusHours(12).plusMinutes(30));
+        assertEquals(beforeSnapshots, afterSnapshots);
+        assertEquals(Duration.ofMinutes(90).toMillis(), history.findUptime(7L, T0, T0.plusDays(1)).getRunningMillis());
+        // Still running at the end of the range, from 11:00
+        assertEquals(Duration.ofHours(13).toMillis(), history.findUptime(8L, T0, T0.plusDays(1)).getRunningMillis());
+    }
+
+    @Test
+    void timelineIsPagedByTime() throws InterruptedException {
+        // After the snapshots taken by the other test
+        LocalDateTime start = T0.plusDays(2);
+
+        long before = transitionLog.getWritten();
+        for (int i = 0; i < 5; i++) {
+            transitionLog.record(transition(9L, start.plusMinutes(i), i % 2 == 0 ? Status.STOPPED : Status.RUNNING,
+                    i % 2 == 0 ? Status.RUNNING : Status.STOPPED));
+        }
+        awaitWritten(transitionLog, before + 5);
+
+        CursorPage<VacuumTransition> first = history.findTimeline(9L, start.minusDays(1), start.plusDays(1), null, 3);
+        assertEquals(3, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        CursorPage<VacuumTransition> second = history.findTimeline(9L, start.minusDays(1), start.plusDays(1), PageCursor.decode(first.getNextCursor()), 3);
+        assertEquals(2, second.getItems().size());
+        assertEquals(start.plusMinutes(3), second.getItems().get(0).getOccurredAt());
+        assertNull(second.getNextCursor());
+    }
+
+    private static VacuumTransition transition(Long vacuumId, LocalDateTime occurredAt, Status from, Status to) {
+        VacuumTransition transition = new VacuumTransition();
+        transition.setVacuumId(vacuumId);
+        transition.setOccurredAt(occurredAt);
+        transition.setAction(to == Status.RUNNING ? VacuumAction.START : VacuumAction.STOP);
+        transition.setStep(to == Status.RUNNING ? TransitionStep.RUN : TransitionStep.STOP);
+        transition.setFromStatus(from);
+        transition.setToStatus(to);
+        transition.setUserId(1L);
+        transition.setRequestedAt(occurredAt.minusSeconds(15));
+        return transition;
+    }
+
+    private static void awaitWritten(VacuumTransitionLog transitionLog, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (transitionLog.getWritten() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(count, transitionLog.getWritten());
+    }
+}